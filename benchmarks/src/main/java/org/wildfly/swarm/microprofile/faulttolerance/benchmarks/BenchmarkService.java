@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.benchmarks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+
+/**
+ * One method per fault tolerance annotation, each method does the same trivial work.
+ */
+@ApplicationScoped
+public class BenchmarkService {
+
+    public String bare() {
+        return RESULT;
+    }
+
+    @Timeout
+    public String timeout() {
+        return RESULT;
+    }
+
+    @Retry
+    public String retry() {
+        return RESULT;
+    }
+
+    @CircuitBreaker
+    public String circuitBreaker() {
+        return RESULT;
+    }
+
+    @Bulkhead
+    public String bulkhead() {
+        return RESULT;
+    }
+
+    @Asynchronous
+    public Future<String> asynchronous() {
+        return CompletableFuture.completedFuture(RESULT);
+    }
+
+    @Fallback(fallbackMethod = "fallbackMethod")
+    public String fallback() {
+        return RESULT;
+    }
+
+    @Fallback(fallbackMethod = "fallbackMethod")
+    public String fallbackInvoked() {
+        throw FAILURE;
+    }
+
+    public String fallbackMethod() {
+        return RESULT;
+    }
+
+    static final String RESULT = "result";
+
+    // No need to fill in the stack trace for every invocation
+    private static final RuntimeException FAILURE = new IllegalStateException("Failure");
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.benchmarks;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+/**
+ * Measures the cost of the fault tolerance interceptor per invocation, for each fault tolerance annotation.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar -prof gc} to also report the allocation rate.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorBenchmark {
+
+    private WeldContainer container;
+
+    private BenchmarkService service;
+
+    @Setup
+    public void setup() {
+        container = new Weld().disableDiscovery().addExtension(new HystrixExtension()).beanClasses(HystrixCommandInterceptor.class, BenchmarkService.class)
+                .initialize();
+        service = container.select(BenchmarkService.class).get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        container.shutdown();
+    }
+
+    @Benchmark
+    public String bare() {
+        return service.bare();
+    }
+
+    @Benchmark
+    public String timeout() {
+        return service.timeout();
+    }
+
+    @Benchmark
+    public String retry() {
+        return service.retry();
+    }
+
+    @Benchmark
+    public String circuitBreaker() {
+        return service.circuitBreaker();
+    }
+
+    @Benchmark
+    public String bulkhead() {
+        return service.bulkhead();
+    }
+
+    @Benchmark
+    public String asynchronous() throws InterruptedException, ExecutionException {
+        return service.asynchronous().get();
+    }
+
+    @Benchmark
+    public String fallback() {
+        return service.fallback();
+    }
+
+    @Benchmark
+    public String fallbackInvoked() {
+        return service.fallbackInvoked();
+    }
+
+}
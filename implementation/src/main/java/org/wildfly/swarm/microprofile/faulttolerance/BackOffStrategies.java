@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
+
+/**
+ * The built-in back-off strategies. Except for {@link #DECORRELATED_JITTER}, the {@link org.eclipse.microprofile.faulttolerance.Retry#jitter()} is added
+ * to the computed delay, all the delays, including the jitter, are bounded by the {@code Retry/maxDelay} config property. The delay actually applied is
+ * further bounded by the time left until the max duration of the retry elapses, see {@link RetryContext#nextDelay()}.
+ */
+public enum BackOffStrategies implements BackOffStrategy {
+
+    /**
+     * The {@link org.eclipse.microprofile.faulttolerance.Retry#delay()} - this is the default strategy.
+     */
+    CONSTANT {
+        @Override
+        public long nextDelay(int retry, long previousDelay, RetryConfig config) {
+            return withJitter(Math.min(config.getDelay(), config.getMaxDelay()), config, config.getMaxDelay());
+        }
+    },
+
+    /**
+     * The delay multiplied by {@code Retry/multiplier} (default {@code 2}) for each retry, up to {@code Retry/maxDelay} which defaults to the max
+     * duration of the retry.
+     */
+    EXPONENTIAL {
+        @Override
+        public long nextDelay(int retry, long previousDelay, RetryConfig config) {
+            return withJitter(Math.min(exponential(retry, config), config.getMaxDelay()), config, config.getMaxDelay());
+        }
+    },
+
+    /**
+     * A random delay between the delay and three times the previous delay, bounded by {@code Retry/maxDelay}. Successive delays of concurrent callers are
+     * not correlated, which avoids synchronized retry waves.
+     */
+    DECORRELATED_JITTER {
+        @Override
+        public long nextDelay(int retry, long previousDelay, RetryConfig config) {
+            long base = config.getDelay();
+            long upper = Math.max(base, previousDelay) * 3;
+            return Math.min(config.getMaxDelay(), upper > base ? ThreadLocalRandom.current().nextLong(base, upper) : base);
+        }
+    },
+
+    /**
+     * The delay multiplied by the Fibonacci number of the retry, i.e. 1, 1, 2, 3, 5, 8...
+     */
+    FIBONACCI {
+        @Override
+        public long nextDelay(int retry, long previousDelay, RetryConfig config) {
+            long previous = 0;
+            long current = 1;
+            // No need to go further once the max delay is reached
+            long max = config.getMaxDelay() / Math.max(1, config.getDelay());
+            for (int i = 1; i < retry && current <= max; i++) {
+                long next = previous + current;
+                previous = current;
+                current = next;
+            }
+            return withJitter(Math.min(saturatedMultiply(config.getDelay(), current), config.getMaxDelay()), config, config.getMaxDelay());
+        }
+    };
+
+    /**
+     *
+     * @param value the name of a built-in strategy or the name of a {@link BackOffStrategy} implementation
+     * @param beanClass the class used to load a custom strategy
+     * @return the back-off strategy
+     */
+    static BackOffStrategy of(String value, Class<?> beanClass) {
+        String name = value.trim();
+        for (BackOffStrategies strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name)) {
+                return strategy;
+            }
+        }
+        try {
+            Class<?> strategyClass = Class.forName(name, true, beanClass.getClassLoader());
+            if (!BackOffStrategy.class.isAssignableFrom(strategyClass)) {
+                throw new FaultToleranceDefinitionException("Invalid back-off strategy " + name + " : must implement " + BackOffStrategy.class.getName());
+            }
+            return (BackOffStrategy) strategyClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new FaultToleranceDefinitionException("Invalid back-off strategy " + name, e);
+        }
+    }
+
+    private static long exponential(int retry, RetryConfig config) {
+        double delay = config.getDelay() * Math.pow(config.getMultiplier(), retry - 1);
+        // The cast saturates to Long.MAX_VALUE
+        return (long) delay;
+    }
+
+    private static long withJitter(long delay, RetryConfig config, long max) {
+        long jitter = config.getJitterMillis();
+        if (jitter > 0) {
+            // Random number between -jitter and +jitter
+            delay = delay > Long.MAX_VALUE - jitter ? delay : delay + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+        }
+        return Math.max(0, Math.min(delay, max));
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return b != 0 && a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+}
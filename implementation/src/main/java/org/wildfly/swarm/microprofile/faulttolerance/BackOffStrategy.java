@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
+
+/**
+ * Computes the delay between two attempts of a {@link org.eclipse.microprofile.faulttolerance.Retry} method.
+ * <p>
+ * The strategy is selected through the {@code Retry/backOff} config property, using the same keys as the {@code Retry} annotation members (e.g.
+ * {@code com.acme.Service/call/Retry/backOff}). The value is either the name of one of the {@link BackOffStrategies} or the name of a class implementing
+ * this interface with a public no-arg constructor. An implementation is shared by all the invocations of a method and must be thread-safe.
+ * </p>
+ *
+ * @see BackOffStrategies
+ */
+@FunctionalInterface
+public interface BackOffStrategy {
+
+    /**
+     *
+     * @param retry the number of the retry, starting with {@code 1}
+     * @param previousDelay the delay in milliseconds before the previous retry, {@code 0} before the first retry
+     * @param config
+     * @return the delay in milliseconds before the next attempt
+     */
+    long nextDelay(int retry, long previousDelay, RetryConfig config);
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+/**
+ * Holds the synchronous circuit breakers of the deployment by name. The name of the circuit breaker of a method is the Hystrix command key unless a
+ * name is configured, see {@link CircuitBreakerConfig#NAME}. The same name is used for the {@link KeyedCircuitBreakers} of a method.
+ * <p>
+ * A circuit breaker is looked up when the invocation metadata is built only, the metadata then holds the circuit breaker itself.
+ * </p>
+ * <p>
+ * If a {@link CircuitBreakerStateFile} is set, the state of the named circuit breakers is persisted, and published to the other processes which use
+ * the same file if it is shared. The keyed circuit breakers are not persisted.
+ * </p>
+ */
+class CircuitBreakerRegistry {
+
+    /**
+     *
+     * @param name
+     * @param config
+     * @return the circuit breaker registered under the given name, a new one is created with the given config if needed - the circuit breaker may be
+     *         shared by several methods
+     */
+    SynchronousCircuitBreaker getOrCreate(String name, CircuitBreakerConfig config) {
+        return circuitBreakers.computeIfAbsent(name, key -> new SynchronousCircuitBreaker(config, stateFile != null ? stateFile.getSlot(key) : null));
+    }
+
+    /**
+     *
+     * @param name
+     * @return the circuit breaker registered under the given name or {@code null}
+     */
+    SynchronousCircuitBreaker get(String name) {
+        return circuitBreakers.get(name);
+    }
+
+    /**
+     *
+     * @param name
+     * @param config
+     * @return the keyed circuit breakers registered under the given name, new ones are created with the given config if needed
+     */
+    KeyedCircuitBreakers getOrCreateKeyed(String name, CircuitBreakerConfig config) {
+        return keyedCircuitBreakers.computeIfAbsent(name, key -> new KeyedCircuitBreakers(config));
+    }
+
+    /**
+     * Must be set before the first circuit breaker is created.
+     *
+     * @param stateFile
+     */
+    void setStateFile(CircuitBreakerStateFile stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    void close() {
+        CircuitBreakerStateFile current = stateFile;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private final ConcurrentMap<String, SynchronousCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, KeyedCircuitBreakers> keyedCircuitBreakers = new ConcurrentHashMap<>();
+
+    private volatile CircuitBreakerStateFile stateFile;
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.faulttolerance.SynchronousCircuitBreaker.Status;
+
+/**
+ * A memory-mapped file which holds the state of the synchronous circuit breakers, so that the state survives a restart.
+ * <p>
+ * The file consists of a header followed by {@value #SLOTS} fixed-size slots. A slot is claimed by a circuit breaker name, identified by a 64-bit hash
+ * of the name, and holds a single {@code long}: the status and, unless the circuit is closed, the time the delay elapses in milliseconds since the epoch.
+ * The state is written with plain stores into the mapped buffer, the operating system flushes the pages to the file.
+ * </p>
+ * <p>
+ * The file may be shared by several processes on the same host, e.g. a file under {@code /dev/shm}. The header is initialized and the slots are claimed
+ * under a file lock, all the processes which use the same name get the same slot. A slot is read and written with an 8-byte aligned access ordered by
+ * a volatile access, so that a process sees the latest transition stored by any process. A shared state file is read by the circuit breakers on each
+ * request, see {@link Slot#isShared()}.
+ * </p>
+ */
+class CircuitBreakerStateFile {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreakerStateFile.class);
+
+    static final int SLOTS = 4096;
+
+    private static final int MAGIC = 0x46544342;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 16;
+
+    private static final int SLOT_SIZE = 16;
+
+    private static final int STATUS_SHIFT = 62;
+
+    // A file lock is held on behalf of the whole JVM, an overlapping lock of another thread would throw an OverlappingFileLockException
+    private static final Object HEADER_MONITOR = new Object();
+
+    private static final long TIME_MASK = (1L << STATUS_SHIFT) - 1;
+
+    private static final Status[] STATUSES = Status.values();
+
+    /**
+     *
+     * @param path
+     * @return the state file of a single process, created if needed
+     * @throws IOException if the file cannot be mapped or is not a state file
+     * @see #open(Path, boolean)
+     */
+    static CircuitBreakerStateFile open(Path path) throws IOException {
+        return open(path, false);
+    }
+
+    /**
+     *
+     * @param path
+     * @param shared true if the file is shared by several processes which publish the state of the circuits to each other
+     * @return the state file, created if needed
+     * @throws IOException if the file cannot be mapped or is not a state file
+     */
+    static CircuitBreakerStateFile open(Path path, boolean shared) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Another process may initialize the file at the same time
+        synchronized (HEADER_MONITOR) {
+            try (FileLock lock = lockHeader(channel)) {
+                long size = channel.size();
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) SLOTS * SLOT_SIZE);
+                if (size == 0) {
+                    buffer.putInt(4, VERSION);
+                    buffer.putInt(8, SLOTS);
+                    buffer.putInt(0, MAGIC);
+                } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != SLOTS) {
+                    throw new IOException(path + " is not a circuit breaker state file");
+                }
+                return new CircuitBreakerStateFile(channel, buffer, shared);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+    }
+
+    private CircuitBreakerStateFile(FileChannel channel, MappedByteBuffer buffer, boolean shared) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.shared = shared;
+    }
+
+    /**
+     *
+     * @param name
+     * @return the slot of the given circuit breaker, or {@code null} if all the slots are claimed or the file cannot be locked
+     */
+    Slot getSlot(String name) {
+        long hash = hash(name);
+        int start = (int) Long.remainderUnsigned(hash, SLOTS);
+        // Another process may claim a slot at the same time
+        synchronized (HEADER_MONITOR) {
+            try (FileLock lock = lockHeader(channel)) {
+                for (int i = 0; i < SLOTS; i++) {
+                    int offset = HEADER_SIZE + ((start + i) % SLOTS) * SLOT_SIZE;
+                    long claimed = buffer.getLong(offset);
+                    if (claimed == 0) {
+                        buffer.putLong(offset + 8, 0);
+                        buffer.putLong(offset, hash);
+                        return new Slot(offset + 8);
+                    }
+                    if (claimed == hash) {
+                        return new Slot(offset + 8);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warnf(e, "Unable to lock the circuit breaker state file, the state of %s is not stored", name);
+            }
+        }
+        return null;
+    }
+
+    boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Flushes the state to the file and releases the file, the slots remain usable.
+     */
+    void close() {
+        buffer.force();
+        try {
+            // The mapping stays valid once the channel is closed
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debugf(e, "Unable to close the circuit breaker state file");
+        }
+    }
+
+    /**
+     *
+     * @param value
+     * @return the status stored in the value, {@link Status#CLOSED} if the status bits do not hold a known status, e.g. a slot written by a newer version
+     */
+    static Status status(long value) {
+        int ordinal = (int) (value >>> STATUS_SHIFT);
+        return ordinal < STATUSES.length ? STATUSES[ordinal] : Status.CLOSED;
+    }
+
+    static long openUntil(long value) {
+        return value & TIME_MASK;
+    }
+
+    /**
+     *
+     * @param name
+     * @return the 64-bit FNV-1a hash of the name, never {@code 0} as it marks a free slot
+     */
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * Must be called while holding {@link #HEADER_MONITOR}.
+     *
+     * @param channel
+     * @return the exclusive lock of the header
+     * @throws IOException
+     */
+    private static FileLock lockHeader(FileChannel channel) throws IOException {
+        return channel.lock(0, HEADER_SIZE, false);
+    }
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final boolean shared;
+
+    // Always 0, orders the accesses to the slots as the mapped buffer has no volatile access in Java 8
+    private volatile int fence;
+
+    final class Slot {
+
+        private Slot(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         *
+         * @return the stored value, see {@link CircuitBreakerStateFile#status(long)} and {@link CircuitBreakerStateFile#openUntil(long)}
+         */
+        long load() {
+            // Acquire - the mapped read cannot be reordered before the volatile read, e.g. hoisted out of a loop
+            int acquire = fence;
+            return buffer.getLong(offset + acquire);
+        }
+
+        /**
+         *
+         * @param status
+         * @param openUntil the time the delay elapses in milliseconds since the epoch, ignored if closed
+         */
+        void store(Status status, long openUntil) {
+            buffer.putLong(offset, ((long) status.ordinal() << STATUS_SHIFT) | (status == Status.CLOSED ? 0 : openUntil & TIME_MASK));
+            // Release - the mapped write is visible before the next loads of this thread
+            fence = 0;
+        }
+
+        /**
+         *
+         * @return true if the state file is shared with other processes
+         */
+        boolean isShared() {
+            return shared;
+        }
+
+        private final int offset;
+
+    }
+
+}
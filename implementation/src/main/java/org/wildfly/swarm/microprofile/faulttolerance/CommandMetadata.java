@@ -0,0 +1,859 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.faulttolerance.config.BulkheadConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.config.FallbackConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.config.GenericConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.config.HedgeConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.config.TimeoutConfig;
+
+import com.netflix.config.ConfigurationManager;
+import com.netflix.hystrix.HystrixCommand.Setter;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixThreadPoolProperties;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+
+import rx.Observable;
+import rx.Subscription;
+
+/**
+ * The precompiled invocation plan of a fault tolerant method.
+ * <p>
+ * Annotations and configuration are resolved once, when the plan is built. The plan then selects the executor matching the set of features the method
+ * actually uses, so that an invocation does not involve any reflection or any check of a feature the method does not declare.
+ * </p>
+ *
+ * @author Antoine Sabot-Durand
+ */
+class CommandMetadata {
+
+    private static final Logger LOGGER = Logger.getLogger(CommandMetadata.class);
+
+    CommandMetadata(Method method, Function<Class<?>, FallbackHandlerProvider> fallbackHandlerProviders, boolean nonFallBackEnable,
+            boolean syncCircuitBreakerEnabled, boolean hystrixBypassEnabled, boolean nonBlockingRetryEnabled, CircuitBreakerRegistry circuitBreakers,
+            ConcurrentHashMap<String, RetryBudget> retryBudgets, RetryScheduler retryScheduler, long configEpoch) {
+
+        this.method = method;
+        this.configEpoch = configEpoch;
+        this.retryScheduler = retryScheduler;
+        this.isAsync = getAnnotation(method, Asynchronous.class) != null;
+
+        // Resolve and validate the whole config before anything is applied, so that an invalid config change leaves no trace
+        Timeout timeout = getAnnotation(method, Timeout.class);
+        TimeoutConfig timeoutConfig = timeout != null ? validated(new TimeoutConfig(timeout, method)) : null;
+        Bulkhead bulkhead = getAnnotation(method, Bulkhead.class);
+        BulkheadConfig bulkheadConfig = bulkhead != null ? validated(new BulkheadConfig(bulkhead, method)) : null;
+
+        CircuitBreaker circuitBreaker = getAnnotation(method, CircuitBreaker.class);
+        if (nonFallBackEnable && circuitBreaker != null) {
+            circuitBreakerConfig = validated(new CircuitBreakerConfig(circuitBreaker, method));
+        } else {
+            circuitBreakerConfig = null;
+        }
+        useSyncCircuitBreaker = syncCircuitBreakerEnabled && circuitBreakerConfig != null;
+
+        Fallback fallback = getAnnotation(method, Fallback.class);
+        if (fallback != null) {
+            FallbackConfig fc = validated(new FallbackConfig(fallback, method));
+            if (!fc.get(FallbackConfig.VALUE).equals(Fallback.DEFAULT.class)) {
+                fallbackHandlerProvider = fallbackHandlerProviders.apply(fallback.value());
+                fallbackMethod = null;
+            } else {
+                fallbackHandlerProvider = null;
+                if (!"".equals(fc.get(FallbackConfig.FALLBACK_METHOD))) {
+                    try {
+                        Method fbm = method.getDeclaringClass().getMethod(fc.get(FallbackConfig.FALLBACK_METHOD), method.getParameterTypes());
+                        fallbackMethod = initFallbackMethod(fbm);
+                    } catch (NoSuchMethodException e) {
+                        throw new FaultToleranceException("Fallback method not found", e);
+                    }
+                } else {
+                    fallbackMethod = null;
+                }
+            }
+        } else {
+            fallbackHandlerProvider = null;
+            fallbackMethod = null;
+        }
+        if (fallbackHandlerProvider != null) {
+            this.fallback = this::invokeFallbackHandler;
+        } else if (fallbackMethod != null) {
+            this.fallback = this::invokeFallbackMethod;
+        } else {
+            this.fallback = null;
+        }
+
+        Retry retry = getAnnotation(method, Retry.class);
+        if (nonFallBackEnable && retry != null) {
+            retryConfig = validated(new RetryConfig(retry, method));
+            retryClassifier = new ExceptionClassifier(retryConfig.getRetryOn(), retryConfig.getAbortOn());
+            backOff = BackOffStrategies.of(retryConfig.getBackOff(), method.getDeclaringClass());
+        } else {
+            retryConfig = null;
+            retryClassifier = null;
+            backOff = null;
+        }
+
+        HedgeConfig hedge = new HedgeConfig(method);
+        if (hedge.isEnabled() && (!isAsync || retryConfig != null)) {
+            LOGGER.warnf("Hedging ignored for %s : only supported for @Asynchronous methods without @Retry", method);
+            hedgeConfig = null;
+        } else {
+            hedgeConfig = hedge.isEnabled() ? hedge : null;
+        }
+
+        keyParameter = useSyncCircuitBreaker ? circuitBreakerConfig.getKeyParameter() : -1;
+        // Only a class-level circuit breaker is not checked by the config validation
+        if (keyParameter >= method.getParameterCount()) {
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + method + " : keyParameter should be the index of a parameter");
+        }
+
+        // Initialize Hystrix command setter
+        commandKey = HystrixCommandKey.Factory.asKey(method.toGenericString());
+        setter = initSetter(nonFallBackEnable, timeoutConfig, bulkheadConfig);
+        retryBudget = retryConfig != null && retryConfig.getBudgetRatio() > 0 ? getRetryBudget(retryBudgets, retryConfig, configEpoch) : null;
+
+        // Select the executor once, the remaining invocations only dispatch to it
+        // Only @Retry and @Fallback are declared - no need for a HystrixCommand at all
+        bypassHystrix = hystrixBypassEnabled && !isAsync && circuitBreakerConfig == null
+                && (!nonFallBackEnable || (timeoutConfig == null && bulkheadConfig == null));
+        // A timeout applies to each attempt and the Hystrix circuit breaker only records command executions
+        commandPerAttempt = (nonFallBackEnable && timeoutConfig != null) || (circuitBreakerConfig != null && !useSyncCircuitBreaker);
+        if (hedgeConfig != null) {
+            executor = this::executeHedged;
+        } else if (isAsync && retryConfig != null && (nonBlockingRetryEnabled || commandPerAttempt)) {
+            executor = this::executeAsyncWithRetry;
+        } else if (bypassHystrix) {
+            executor = retryConfig != null ? this::executeDirectlyWithRetry : this::executeDirectly;
+        } else if (retryConfig != null) {
+            executor = commandPerAttempt ? this::executeWithCommandPerAttempt : this::executeWithRetry;
+        } else {
+            executor = !useSyncCircuitBreaker ? this::executeOnce : isAsync ? this::executeAsyncWithCircuitBreaker : this::executeWithCircuitBreaker;
+        }
+
+        // Methods which declare the same name share the circuit breaker
+        String circuitBreakerName = useSyncCircuitBreaker && circuitBreakerConfig.getName() != null ? circuitBreakerConfig.getName() : commandKey.name();
+        if (keyParameter >= 0) {
+            methodCircuitBreaker = null;
+            keyedCircuitBreakers = circuitBreakers.getOrCreateKeyed(circuitBreakerName, circuitBreakerConfig);
+            if (configEpoch > 0) {
+                keyedCircuitBreakers.setConfig(circuitBreakerConfig);
+            }
+        } else if (useSyncCircuitBreaker) {
+            methodCircuitBreaker = circuitBreakers.getOrCreate(circuitBreakerName, circuitBreakerConfig);
+            keyedCircuitBreakers = null;
+            if (configEpoch > 0) {
+                // The config changed - an existing circuit breaker keeps its state but switches to the new config
+                methodCircuitBreaker.setConfig(circuitBreakerConfig);
+            }
+        } else {
+            methodCircuitBreaker = null;
+            keyedCircuitBreakers = null;
+        }
+    }
+
+    /**
+     *
+     * @param ctx
+     * @return the result of the invocation, or the fallback result
+     * @throws Exception on execution failure
+     */
+    Object execute(ExecutionContextWithInvocationContext ctx) throws Exception {
+        return executor.execute(ctx);
+    }
+
+    /**
+     *
+     * @return the config epoch this plan is used for
+     * @see ConfigEpoch
+     */
+    long getConfigEpoch() {
+        return configEpoch;
+    }
+
+    /**
+     * Keeps using this plan for the given config epoch, e.g. if the config of the epoch is not valid.
+     *
+     * @param configEpoch
+     */
+    void retainFor(long configEpoch) {
+        this.configEpoch = configEpoch;
+    }
+
+    /**
+     * Initializes the Hystrix command resources (properties, metrics, thread pool) used by this plan.
+     */
+    void warmUp() {
+        if (!bypassHystrix) {
+            newCommand(null, fallback, null);
+        }
+    }
+
+    /**
+     * A rebuilt plan applies a config changed at runtime, which was not validated when the types were discovered.
+     *
+     * @param config
+     * @return the config
+     * @throws FaultToleranceDefinitionException if the config is not valid
+     */
+    private <C extends GenericConfig<?>> C validated(C config) {
+        if (configEpoch > 0) {
+            config.validate();
+        }
+        return config;
+    }
+
+    static <T extends Annotation> T getAnnotation(Method method, Class<T> annotation) {
+        if (method.isAnnotationPresent(annotation)) {
+            return method.getAnnotation(annotation);
+        } else if (method.getDeclaringClass().isAnnotationPresent(annotation)) {
+            return method.getDeclaringClass().getAnnotation(annotation);
+        }
+        return null;
+    }
+
+    private Object executeDirectly(ExecutionContextWithInvocationContext ctx) throws Exception {
+        try {
+            return ctx.proceed();
+        } catch (Exception e) {
+            if (fallback != null) {
+                return fallback.apply(ctx);
+            }
+            throw e;
+        }
+    }
+
+    private Object executeDirectlyWithRetry(ExecutionContextWithInvocationContext ctx) throws Exception {
+        try {
+            return runWithRetry(newRetryContext(), null, ctx::proceed);
+        } catch (Exception e) {
+            if (fallback != null) {
+                return fallback.apply(ctx);
+            }
+            throw e;
+        }
+    }
+
+    private Object executeOnce(ExecutionContextWithInvocationContext ctx) throws Exception {
+        try {
+            return run(newCommand(ctx, fallback, null));
+        } catch (HystrixRuntimeException e) {
+            throw toException(e);
+        }
+    }
+
+    /**
+     * All the attempts run within a single command, the fallback applies once no more attempt is possible.
+     *
+     * @param ctx
+     * @return the result of the invocation, or the fallback result
+     * @throws Exception on execution failure
+     */
+    private Object executeWithRetry(ExecutionContextWithInvocationContext ctx) throws Exception {
+        RetryContext retryContext = newRetryContext();
+        Attempt attempt = isAsync ? () -> DefaultCommand.unwrap(ctx.proceed()) : ctx::proceed;
+        try {
+            SynchronousCircuitBreaker syncCircuitBreaker = getCircuitBreaker(ctx);
+            return run(newCommand(ctx, fallback, () -> runWithRetry(retryContext, syncCircuitBreaker, attempt)));
+        } catch (HystrixRuntimeException e) {
+            throw toException(e);
+        }
+    }
+
+    /**
+     * Each attempt is a separate command, so that the timeout applies to each attempt and the Hystrix circuit breaker records each attempt. Only used for
+     * synchronous invocations, see {@link #executeAsyncWithRetry(ExecutionContextWithInvocationContext)}.
+     *
+     * @param ctx
+     * @return the result of the invocation, or the fallback result
+     * @throws Exception on execution failure
+     */
+    private Object executeWithCommandPerAttempt(ExecutionContextWithInvocationContext ctx) throws Exception {
+        try {
+            return runWithRetry(newRetryContext(), getCircuitBreaker(ctx), () -> newCommand(ctx, null, null).execute());
+        } catch (Exception e) {
+            if (fallback != null) {
+                return fallback.apply(ctx);
+            }
+            throw e instanceof HystrixRuntimeException ? toException((HystrixRuntimeException) e) : e;
+        }
+    }
+
+    /**
+     * The circuit breaker records the outcome of the execution itself, the fallback only applies afterwards. Only used for synchronous invocations, see
+     * {@link #executeAsyncWithCircuitBreaker(ExecutionContextWithInvocationContext)}.
+     *
+     * @param ctx
+     * @return the result of the invocation, or the fallback result
+     * @throws Exception on execution failure
+     */
+    private Object executeWithCircuitBreaker(ExecutionContextWithInvocationContext ctx) throws Exception {
+        SynchronousCircuitBreaker syncCircuitBreaker = getCircuitBreaker(ctx);
+        try {
+            if (!syncCircuitBreaker.allowRequest()) {
+                throw new CircuitBreakerOpenException(method.getName());
+            }
+            // No command is built for a rejected request
+            DefaultCommand command = newCommand(ctx, null, null);
+            long start = System.nanoTime();
+            try {
+                Object res = command.execute();
+                syncCircuitBreaker.incSuccessCount(System.nanoTime() - start);
+                return res;
+            } catch (HystrixRuntimeException e) {
+                syncCircuitBreaker.incFailureCount(System.nanoTime() - start);
+                throw toException(e);
+            }
+        } catch (Exception e) {
+            if (fallback != null) {
+                return fallback.apply(ctx);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The outcome and the execution time are recorded once the execution completes, not when the command is queued.
+     *
+     * @param ctx
+     * @return the future completed once the execution or the fallback completes
+     */
+    private Object executeAsyncWithCircuitBreaker(ExecutionContextWithInvocationContext ctx) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        SynchronousCircuitBreaker syncCircuitBreaker = getCircuitBreaker(ctx);
+        if (!syncCircuitBreaker.allowRequest()) {
+            completeExceptionally(ctx, result, new CircuitBreakerOpenException(method.getName()));
+            return result;
+        }
+        long start = System.nanoTime();
+        new DefaultCommand(setter, ctx, null, null, true).toObservable().subscribe(value -> {
+            syncCircuitBreaker.incSuccessCount(System.nanoTime() - start);
+            result.complete(value);
+        }, failure -> {
+            syncCircuitBreaker.incFailureCount(System.nanoTime() - start);
+            completeExceptionally(ctx, result, failure instanceof HystrixRuntimeException ? toException((HystrixRuntimeException) failure) : failure);
+        });
+        return result;
+    }
+
+    /**
+     * Each attempt is a separate command. The retry delay elapses on the {@link RetryScheduler} so that no thread is held between two attempts.
+     *
+     * @param ctx
+     * @return the future completed once the last attempt or the fallback completes
+     */
+    private Object executeAsyncWithRetry(ExecutionContextWithInvocationContext ctx) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        attempt(ctx, newRetryContext(), result);
+        return result;
+    }
+
+    private void attempt(ExecutionContextWithInvocationContext ctx, RetryContext retryContext, CompletableFuture<Object> result) {
+        if (result.isDone()) {
+            // Cancelled by the caller
+            return;
+        }
+        SynchronousCircuitBreaker syncCircuitBreaker = getCircuitBreaker(ctx);
+        if (syncCircuitBreaker != null && !syncCircuitBreaker.allowRequest()) {
+            completeExceptionally(ctx, result, new CircuitBreakerOpenException(method.getName()));
+            return;
+        }
+        long start = System.nanoTime();
+        // The fallback only applies once no more attempt is possible
+        new DefaultCommand(setter, ctx, null, null, true).toObservable().subscribe(value -> {
+            if (syncCircuitBreaker != null) {
+                syncCircuitBreaker.incSuccessCount(System.nanoTime() - start);
+            }
+            retryContext.onSuccess();
+            result.complete(value);
+        }, failure -> {
+            if (syncCircuitBreaker != null) {
+                syncCircuitBreaker.incFailureCount(System.nanoTime() - start);
+            }
+            onAttemptFailure(ctx, retryContext, result, failure);
+        });
+    }
+
+    private void onAttemptFailure(ExecutionContextWithInvocationContext ctx, RetryContext retryContext, CompletableFuture<Object> result, Throwable failure) {
+        if (!(failure instanceof HystrixRuntimeException)) {
+            completeExceptionally(ctx, result, failure);
+            return;
+        }
+        HystrixRuntimeException e = (HystrixRuntimeException) failure;
+        if (shouldRetry(retryContext, e)) {
+            retryScheduler.schedule(() -> attempt(ctx, retryContext, result), retryContext.nextDelay());
+        } else {
+            completeExceptionally(ctx, result, toException(e));
+        }
+    }
+
+    /**
+     * Starts a hedged attempt whenever the previous one did not complete within the hedge delay. The first successful attempt completes the invocation,
+     * the other attempts are then unsubscribed. The fallback only applies once all the attempts failed.
+     *
+     * @param ctx
+     * @return the future completed by the first successful attempt, or by the fallback
+     */
+    private Object executeHedged(ExecutionContextWithInvocationContext ctx) {
+        HedgedInvocation invocation = new HedgedInvocation(ctx);
+        invocation.start();
+        return invocation.result;
+    }
+
+    private long getHedgeDelay() {
+        if (hedgeConfig.getPercentile() > 0) {
+            HystrixCommandMetrics metrics = HystrixCommandMetrics.getInstance(commandKey);
+            // The percentile is not known until the first executions are recorded
+            int percentile = metrics != null ? metrics.getExecutionTimePercentile(hedgeConfig.getPercentile()) : 0;
+            if (percentile > 0) {
+                return percentile;
+            }
+        }
+        return hedgeConfig.getDelay();
+    }
+
+    /**
+     * The fallback runs on the default asynchronous executor, the caller may be the {@link RetryScheduler} thread which must never block. A fallback
+     * result which is a {@link CompletionStage} completes the result once it completes.
+     *
+     * @param ctx
+     * @param result
+     * @param failure
+     */
+    private void completeExceptionally(ExecutionContextWithInvocationContext ctx, CompletableFuture<Object> result, Throwable failure) {
+        if (fallback == null) {
+            result.completeExceptionally(failure);
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                Object res = fallback.apply(ctx);
+                if (res instanceof CompletionStage) {
+                    ((CompletionStage<?>) res).whenComplete((value, e) -> {
+                        if (e == null) {
+                            result.complete(value);
+                        } else {
+                            result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                        }
+                    });
+                } else {
+                    result.complete(res instanceof Future ? ((Future<?>) res).get() : res);
+                }
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     *
+     * @param e
+     * @return the failure the retry policy is applied to, or null if the failure cannot be retried
+     */
+    private static Throwable getRetryFailure(HystrixRuntimeException e) {
+        switch (e.getFailureType()) {
+            case TIMEOUT:
+                return new TimeoutException(e);
+            case REJECTED_THREAD_EXECUTION:
+            case REJECTED_SEMAPHORE_EXECUTION:
+            case REJECTED_SEMAPHORE_FALLBACK:
+                return e;
+            case COMMAND_EXCEPTION:
+                return e.getCause() != null ? e.getCause() : e;
+            default:
+                return null;
+        }
+    }
+
+    private DefaultCommand newCommand(ExecutionContextWithInvocationContext ctx, Function<ExecutionContextWithInvocationContext, Object> fallback,
+            Callable<Object> body) {
+        return new DefaultCommand(setter, ctx, fallback, body, isAsync);
+    }
+
+    private Object run(DefaultCommand command) {
+        return isAsync ? command.queue() : command.execute();
+    }
+
+    /**
+     *
+     * @param ctx
+     * @return the circuit breaker of the invocation or {@code null}
+     */
+    private SynchronousCircuitBreaker getCircuitBreaker(ExecutionContextWithInvocationContext ctx) {
+        return keyedCircuitBreakers != null ? keyedCircuitBreakers.get(ctx.getParameters()[keyParameter]) : methodCircuitBreaker;
+    }
+
+    private RetryContext newRetryContext() {
+        return new RetryContext(retryConfig, retryClassifier, backOff, retryBudget);
+    }
+
+    /**
+     * The retry loop shared by the synchronous executors. The synchronous circuit breaker, if any, is consulted before each attempt and records the
+     * outcome of each attempt.
+     *
+     * @param retryContext
+     * @param syncCircuitBreaker the circuit breaker or {@code null}
+     * @param attempt
+     * @return the result of the first successful attempt
+     * @throws Exception the failure of the last attempt
+     */
+    private Object runWithRetry(RetryContext retryContext, SynchronousCircuitBreaker syncCircuitBreaker, Attempt attempt) throws Exception {
+        while (true) {
+            if (syncCircuitBreaker != null && !syncCircuitBreaker.allowRequest()) {
+                throw new CircuitBreakerOpenException(method.getName());
+            }
+            long start = System.nanoTime();
+            try {
+                Object res = attempt.run();
+                if (syncCircuitBreaker != null) {
+                    syncCircuitBreaker.incSuccessCount(System.nanoTime() - start);
+                }
+                retryContext.onSuccess();
+                return res;
+            } catch (Exception e) {
+                if (syncCircuitBreaker != null) {
+                    syncCircuitBreaker.incFailureCount(System.nanoTime() - start);
+                }
+                if (!shouldRetry(retryContext, e)) {
+                    throw e;
+                }
+                long delay = retryContext.nextDelay();
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+            } catch (Error e) {
+                // Not retried, but recorded so that the trial permit of a half-open circuit is not leaked
+                if (syncCircuitBreaker != null) {
+                    syncCircuitBreaker.incFailureCount(System.nanoTime() - start);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Consumes one attempt and checks whether the failed attempt may be retried.
+     *
+     * @param retryContext
+     * @param e
+     * @return true if the failed attempt may be retried
+     */
+    private boolean shouldRetry(RetryContext retryContext, Exception e) {
+        Throwable failure = e instanceof HystrixRuntimeException ? getRetryFailure((HystrixRuntimeException) e) : e;
+        if (failure == null) {
+            return false;
+        }
+        // Decrement the retry count for this attempt
+        retryContext.doRetry();
+        return retryContext.isRetryable(failure) && retryContext.shouldRetry() && System.nanoTime() - retryContext.getStart() <= retryContext.getMaxDuration()
+                && retryContext.acquireRetry();
+    }
+
+    private Exception toException(HystrixRuntimeException e) {
+        switch (e.getFailureType()) {
+            case TIMEOUT:
+                return new TimeoutException(e);
+            case SHORTCIRCUIT:
+                return new CircuitBreakerOpenException(method.getName());
+            default:
+                return (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private Object invokeFallbackHandler(ExecutionContextWithInvocationContext ctx) {
+        return fallbackHandlerProvider.handle(ctx);
+    }
+
+    private Object invokeFallbackMethod(ExecutionContextWithInvocationContext ctx) {
+        try {
+            return (Object) fallbackMethod.invokeExact(ctx.getTarget(), ctx.getParameters());
+        } catch (Throwable e) {
+            throw new FaultToleranceException("Error during fallback method invocation", e);
+        }
+    }
+
+    /**
+     * Resolves the fallback method into a method handle of type {@code (Object, Object[])Object}, so that an invocation does not involve any access check
+     * nor any reflective dispatch.
+     *
+     * @param fallbackMethod
+     * @return the method handle
+     */
+    private static MethodHandle initFallbackMethod(Method fallbackMethod) {
+        try {
+            SecurityActions.setAccessible(fallbackMethod);
+            return MethodHandles.lookup().unreflect(fallbackMethod).asSpreader(Object[].class, fallbackMethod.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new FaultToleranceException("Fallback method not accessible: " + fallbackMethod, e);
+        }
+    }
+
+    private RetryBudget getRetryBudget(ConcurrentHashMap<String, RetryBudget> retryBudgets, RetryConfig config, long configEpoch) {
+        // The budget is shared by all the plans of a command key, only its config changes when the plan is rebuilt
+        RetryBudget budget = retryBudgets.computeIfAbsent(commandKey.name(), (key) -> new RetryBudget(config.getBudgetRatio(), config.getBudgetCapacity()));
+        if (configEpoch > 0) {
+            budget.configure(config.getBudgetRatio(), config.getBudgetCapacity());
+        }
+        return budget;
+    }
+
+    private Setter initSetter(boolean nonFallBackEnable, TimeoutConfig timeoutConfig, BulkheadConfig bulkheadConfig) {
+        HystrixCommandProperties.Setter propertiesSetter = HystrixCommandProperties.Setter();
+        HystrixThreadPoolProperties.Setter threadPoolSetter = HystrixThreadPoolProperties.Setter();
+
+        if (!isAsync) {
+            propertiesSetter.withExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.SEMAPHORE);
+        } else {
+            propertiesSetter.withExecutionIsolationStrategy(HystrixCommandProperties.ExecutionIsolationStrategy.THREAD);
+        }
+
+        if (nonFallBackEnable && timeoutConfig != null) {
+            Long value = Duration.of(timeoutConfig.get(TimeoutConfig.VALUE), timeoutConfig.get(TimeoutConfig.UNIT)).toMillis();
+            if (value > Integer.MAX_VALUE) {
+                LOGGER.warnf("Max supported value for @Timeout.value() is %s", Integer.MAX_VALUE);
+                value = Long.valueOf(Integer.MAX_VALUE);
+            }
+            propertiesSetter.withExecutionTimeoutInMilliseconds(value.intValue());
+        } else {
+            propertiesSetter.withExecutionTimeoutEnabled(false);
+        }
+
+        // The synchronous circuit breaker is checked by the executors, Hystrix does not know about it
+        if (nonFallBackEnable && circuitBreakerConfig != null && !useSyncCircuitBreaker) {
+            propertiesSetter.withCircuitBreakerEnabled(true)
+                    .withCircuitBreakerRequestVolumeThreshold(circuitBreakerConfig.getRequestVolumeThreshold())
+                    .withCircuitBreakerErrorThresholdPercentage(new Double(circuitBreakerConfig.getFailureRatio() * 100).intValue())
+                    .withCircuitBreakerSleepWindowInMilliseconds((int) circuitBreakerConfig.getDelayMillis());
+        } else {
+            propertiesSetter.withCircuitBreakerEnabled(false);
+        }
+
+        if (nonFallBackEnable && bulkheadConfig != null) {
+            propertiesSetter.withExecutionIsolationSemaphoreMaxConcurrentRequests(bulkheadConfig.get(BulkheadConfig.VALUE))
+                    .withExecutionIsolationThreadInterruptOnFutureCancel(true);
+            // TODO: review the following comments
+            // threadPoolSetter.withCoreSize(conf.get(BulkheadConfig.VALUE));
+            // threadPoolSetter.withMaximumSize(conf.get(BulkheadConfig.VALUE));
+        }
+
+        if (configEpoch > 0) {
+            // Hystrix caches the command properties built from the setter, only the dynamic properties can be changed at runtime
+            publishHystrixProperties(propertiesSetter);
+        }
+
+        return Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey("DefaultCommandGroup"))
+                // Each method must have a unique command key
+                .andCommandKey(commandKey).andCommandPropertiesDefaults(propertiesSetter).andThreadPoolPropertiesDefaults(threadPoolSetter);
+    }
+
+    private void publishHystrixProperties(HystrixCommandProperties.Setter propertiesSetter) {
+        String prefix = "hystrix.command." + commandKey.name() + ".";
+        AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+        setHystrixProperty(configuration, prefix + "execution.timeout.enabled", propertiesSetter.getExecutionTimeoutEnabled());
+        setHystrixProperty(configuration, prefix + "execution.isolation.thread.timeoutInMilliseconds", propertiesSetter.getExecutionTimeoutInMilliseconds());
+        setHystrixProperty(configuration, prefix + "execution.isolation.semaphore.maxConcurrentRequests",
+                propertiesSetter.getExecutionIsolationSemaphoreMaxConcurrentRequests());
+        setHystrixProperty(configuration, prefix + "circuitBreaker.enabled", propertiesSetter.getCircuitBreakerEnabled());
+        setHystrixProperty(configuration, prefix + "circuitBreaker.requestVolumeThreshold", propertiesSetter.getCircuitBreakerRequestVolumeThreshold());
+        setHystrixProperty(configuration, prefix + "circuitBreaker.errorThresholdPercentage", propertiesSetter.getCircuitBreakerErrorThresholdPercentage());
+        setHystrixProperty(configuration, prefix + "circuitBreaker.sleepWindowInMilliseconds", propertiesSetter.getCircuitBreakerSleepWindowInMilliseconds());
+    }
+
+    private static void setHystrixProperty(AbstractConfiguration configuration, String name, Object value) {
+        if (value != null) {
+            configuration.setProperty(name, value);
+        }
+    }
+
+    private final class HedgedInvocation {
+
+        HedgedInvocation(ExecutionContextWithInvocationContext ctx) {
+            this.ctx = ctx;
+        }
+
+        void start() {
+            if (result.isDone()) {
+                return;
+            }
+            int attempt = started.getAndIncrement();
+            SynchronousCircuitBreaker syncCircuitBreaker = getCircuitBreaker(ctx);
+            if (syncCircuitBreaker != null && !syncCircuitBreaker.allowRequest()) {
+                if (attempt == 0) {
+                    completeExceptionally(ctx, result, new CircuitBreakerOpenException(method.getName()));
+                }
+                // Hedging makes no sense if the circuit is open
+                return;
+            }
+            running.incrementAndGet();
+            Observable<Object> observable = new DefaultCommand(setter, ctx, null, null, true).toObservable();
+            AtomicBoolean recorded = new AtomicBoolean();
+            if (syncCircuitBreaker != null) {
+                // An attempt cancelled because another one completed first records no outcome and must not hold a trial permit
+                observable = observable.doOnUnsubscribe(() -> {
+                    if (recorded.compareAndSet(false, true)) {
+                        syncCircuitBreaker.release();
+                    }
+                });
+            }
+            long start = System.nanoTime();
+            Subscription subscription = observable.subscribe(value -> {
+                if (syncCircuitBreaker != null && recorded.compareAndSet(false, true)) {
+                    syncCircuitBreaker.incSuccessCount(System.nanoTime() - start);
+                }
+                if (result.complete(value)) {
+                    cancel();
+                }
+            }, failure -> {
+                if (syncCircuitBreaker != null && recorded.compareAndSet(false, true)) {
+                    syncCircuitBreaker.incFailureCount(System.nanoTime() - start);
+                }
+                if (running.decrementAndGet() == 0) {
+                    // No attempt left - do not wait for the next hedge
+                    cancel();
+                    completeExceptionally(ctx, result, failure instanceof HystrixRuntimeException ? toException((HystrixRuntimeException) failure) : failure);
+                }
+            });
+            subscriptions.add(subscription);
+            if (result.isDone()) {
+                subscription.unsubscribe();
+            } else if (attempt < hedgeConfig.getMaxHedges()) {
+                nextHedge = retryScheduler.schedule(this::start, getHedgeDelay());
+            }
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> hedge = nextHedge;
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            subscriptions.forEach(Subscription::unsubscribe);
+        }
+
+        private final ExecutionContextWithInvocationContext ctx;
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger started = new AtomicInteger();
+
+        private final AtomicInteger running = new AtomicInteger();
+
+        private volatile ScheduledFuture<?> nextHedge;
+
+    }
+
+    @FunctionalInterface
+    private interface Executor {
+
+        Object execute(ExecutionContextWithInvocationContext ctx) throws Exception;
+
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+
+        Object run() throws Exception;
+
+    }
+
+    private final Method method;
+
+    private final boolean isAsync;
+
+    private final Setter setter;
+
+    private final HystrixCommandKey commandKey;
+
+    private final FallbackHandlerProvider fallbackHandlerProvider;
+
+    private final MethodHandle fallbackMethod;
+
+    private final Function<ExecutionContextWithInvocationContext, Object> fallback;
+
+    private final RetryConfig retryConfig;
+
+    private final ExceptionClassifier retryClassifier;
+
+    private final BackOffStrategy backOff;
+
+    private final RetryBudget retryBudget;
+
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    private final SynchronousCircuitBreaker methodCircuitBreaker;
+
+    private final KeyedCircuitBreakers keyedCircuitBreakers;
+
+    private final int keyParameter;
+
+    private final RetryScheduler retryScheduler;
+
+    private final HedgeConfig hedgeConfig;
+
+    private final Executor executor;
+
+    private final boolean useSyncCircuitBreaker;
+
+    private final boolean bypassHystrix;
+
+    private final boolean commandPerAttempt;
+
+    private volatile long configEpoch;
+
+}
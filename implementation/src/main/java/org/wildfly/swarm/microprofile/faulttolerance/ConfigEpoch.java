@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+
+/**
+ * Tracks the version of the fault tolerance configuration.
+ * <p>
+ * If enabled, the config properties related to fault tolerance are periodically compared with the previous snapshot and the epoch is incremented
+ * whenever a value changes. The {@link CommandMetadata} built for an older epoch is then rebuilt on the next invocation. Checking the epoch costs a single
+ * volatile read.
+ * </p>
+ *
+ * @see HystrixCommandInterceptor#CONFIG_REFRESH_INTERVAL_KEY
+ */
+class ConfigEpoch {
+
+    private static final Logger LOGGER = Logger.getLogger(ConfigEpoch.class);
+
+    private static final String[] CONFIG_TYPES = { "Timeout/", "Retry/", "CircuitBreaker/", "Bulkhead/", "Fallback/", "Hedge/" };
+
+    long current() {
+        return epoch;
+    }
+
+    /**
+     *
+     * @param interval the interval in milliseconds, the config is not watched if lower than 1
+     */
+    synchronized void start(long interval) {
+        if (interval < 1 || executor != null) {
+            return;
+        }
+        snapshot = takeSnapshot(ConfigProvider.getConfig());
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "fault-tolerance-config-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::checkForChanges, interval, interval, TimeUnit.MILLISECONDS);
+        LOGGER.debugf("Fault tolerance config watched every %d ms", interval);
+    }
+
+    synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    void checkForChanges() {
+        try {
+            Map<String, String> current = takeSnapshot(ConfigProvider.getConfig());
+            if (!current.equals(snapshot)) {
+                snapshot = current;
+                epoch++;
+                LOGGER.infof("Fault tolerance config changed, new config epoch: %d", epoch);
+            }
+        } catch (Exception e) {
+            LOGGER.warnf(e, "Unable to check fault tolerance config changes");
+        }
+    }
+
+    private static Map<String, String> takeSnapshot(Config config) {
+        Map<String, String> values = new HashMap<>();
+        for (String name : config.getPropertyNames()) {
+            if (isFaultToleranceProperty(name)) {
+                values.put(name, config.getOptionalValue(name, String.class).orElse(null));
+            }
+        }
+        return values;
+    }
+
+    private static boolean isFaultToleranceProperty(String name) {
+        for (String type : CONFIG_TYPES) {
+            if (name.startsWith(type) || name.contains("/" + type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Only written by the watcher thread
+    private volatile long epoch;
+
+    private Map<String, String> snapshot;
+
+    private ScheduledExecutorService executor;
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+/**
+ * A count-based rolling window of the last outcomes of a circuit breaker.
+ * <p>
+ * The outcomes are stored in a ring buffer of bits, two bits per slot set for a failure and for a slow call respectively, and the numbers of failures
+ * and slow calls in the window are maintained along the way. Recording an outcome is lock-free, O(1) and allocation-free.
+ * </p>
+ */
+class CountWindow implements OutcomeWindow {
+
+    private static final int SLOTS_PER_WORD = Long.SIZE / 2;
+
+    private static final long FAILURE = 1L;
+
+    private static final long SLOW = 2L;
+
+    CountWindow(int size) {
+        this.size = size;
+        this.bits = new AtomicLongArray((size + SLOTS_PER_WORD - 1) / SLOTS_PER_WORD);
+    }
+
+    @Override
+    public void record(boolean failure, boolean slow) {
+        int slot = (int) (cursor.getAndIncrement() % size);
+        int word = slot / SLOTS_PER_WORD;
+        int shift = (slot % SLOTS_PER_WORD) * 2;
+        long outcome = (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+        while (true) {
+            long current = bits.get(word);
+            long evicted = (current >>> shift) & (FAILURE | SLOW);
+            if (evicted == outcome) {
+                // The evicted outcome is the same
+                return;
+            }
+            if (bits.compareAndSet(word, current, (current & ~((FAILURE | SLOW) << shift)) | (outcome << shift))) {
+                update(failures, evicted, outcome, FAILURE);
+                update(slowCalls, evicted, outcome, SLOW);
+                return;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return the number of outcomes in the window, at most the size of the window
+     */
+    @Override
+    public long getRequests() {
+        return Math.min(cursor.get(), size);
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.get();
+    }
+
+    @Override
+    public long getSlowCalls() {
+        return slowCalls.get();
+    }
+
+    @Override
+    public boolean matches(CircuitBreakerConfig config) {
+        return !config.isTimeWindow() && config.getRequestVolumeThreshold() == size;
+    }
+
+    private static void update(AtomicInteger count, long evicted, long outcome, long flag) {
+        if ((evicted & flag) != (outcome & flag)) {
+            count.addAndGet((outcome & flag) != 0 ? 1 : -1);
+        }
+    }
+
+    private final int size;
+
+    private final AtomicLongArray bits;
+
+    private final AtomicLong cursor = new AtomicLong();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+}
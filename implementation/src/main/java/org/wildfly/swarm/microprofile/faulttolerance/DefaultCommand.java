@@ -16,10 +16,9 @@
 
 package org.wildfly.swarm.microprofile.faulttolerance;
 
-import java.time.Duration;
-import java.util.Arrays;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 import com.netflix.hystrix.HystrixCommand;
 
@@ -34,72 +33,25 @@ public class DefaultCommand extends HystrixCommand<Object> {
      * @param setter
      * @param ctx
      * @param fallback
-     * @param retryContext
+     * @param body the body of the command, if null the command proceeds with the invocation
      * @param isAsync
-     * @param hasCircuitBreaker
      */
-    protected DefaultCommand(Setter setter, ExecutionContextWithInvocationContext ctx, Supplier<Object> fallback, RetryContext retryContext, boolean isAsync, boolean hasCircuitBreaker) {
+    protected DefaultCommand(Setter setter, ExecutionContextWithInvocationContext ctx, Function<ExecutionContextWithInvocationContext, Object> fallback,
+            Callable<Object> body, boolean isAsync) {
         super(setter);
         this.ctx = ctx;
         this.fallback = fallback;
-        this.retryContext = retryContext;
-        this.hasCircuitBreaker = hasCircuitBreaker;
+        this.body = body;
         this.isAsync = isAsync;
     }
 
     @Override
     protected Object run() throws Exception {
-        Object res;
-        if (hasCircuitBreaker) {
-            res = basicRun();
-        } else {
-            res = runWithRetry();
-        }
-        return res;
-    }
-
-    /**
-     * Run and handle the @Retry logic in the execution loop. This only works when a @CircuitBreaker configuraiton
-     * does not exist.
-     * @return the run result
-     * @throws Exception on execution failure
-     */
-    protected Object runWithRetry() throws Exception {
-        Object res = null;
-        boolean notExecuted = true;
-        if (retryContext == null) {
-            res = basicRun();
-        } else {
-            while (notExecuted && retryContext.shouldRetry()) {
-                retryContext.doRetry();
-                try {
-                    res = basicRun();
-                    notExecuted = false;
-                } catch (Exception e) {
-                    if (Arrays.stream(retryContext.getAbortOn()).noneMatch(ex -> ex.isAssignableFrom(e.getClass()))
-                            && (retryContext.getRetryOn().length == 0 || Arrays.stream(retryContext.getRetryOn()).anyMatch(ex -> ex.isAssignableFrom(e.getClass())))
-                            && retryContext.shouldRetry()
-                            && System.nanoTime() - retryContext.getStart() <= retryContext.getMaxDuration()) {
-                        Long jitterBase = retryContext.getJitter();
-                        if (retryContext.getDelay() > 0) {
-                            long jitter = (long) (Math.random() * ((jitterBase * 2) + 1)) - jitterBase; // random number between -jitter and +jitter
-                            Thread.sleep(retryContext.getDelay() + Duration.of(jitter, retryContext.getJitterDelayUnit()).toMillis());
-                        }
-                        continue;
-                    } else {
-                        throw e;
-                    }
-                }
-            }
+        if (body != null) {
+            return body.call();
         }
-
-        return res;
-    }
-
-    private Object basicRun() throws Exception {
-        Object res;
-        res = ctx.proceed();
-        return unwrap(res);
+        Object res = ctx.proceed();
+        return isAsync ? unwrap(res) : res;
     }
 
     @Override
@@ -107,15 +59,18 @@ public class DefaultCommand extends HystrixCommand<Object> {
         if (fallback == null) {
             return super.getFallback();
         }
-        return unwrap(fallback.get());
+        Object res = fallback.apply(ctx);
+        return isAsync ? unwrap(res) : res;
     }
 
+    /**
+     * For an async invocation we have to unwrap the result.
+     *
+     * @param res
+     * @return the result of the given future
+     */
     @SuppressWarnings("rawtypes")
-    private Object unwrap(Object res) {
-        if (!isAsync) {
-            return res;
-        }
-        // For an async invocation we have to unwrap the result
+    static Object unwrap(Object res) {
         if (res instanceof Future) {
             try {
                 return ((Future) res).get();
@@ -127,13 +82,11 @@ public class DefaultCommand extends HystrixCommand<Object> {
         }
     }
 
-    private final Supplier<Object> fallback;
+    private final Function<ExecutionContextWithInvocationContext, Object> fallback;
 
     private final ExecutionContextWithInvocationContext ctx;
 
-    private final RetryContext retryContext;
-
-    private final boolean hasCircuitBreaker;
+    private final Callable<Object> body;
 
     private final boolean isAsync;
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.Arrays;
+
+/**
+ * Classifies the failures of a fault tolerant method according to {@link org.eclipse.microprofile.faulttolerance.Retry#retryOn()} and
+ * {@link org.eclipse.microprofile.faulttolerance.Retry#abortOn()}.
+ * <p>
+ * The outcome is computed once per exception class and memoized in a {@link ClassValue}, so that classifying a failure is a single lookup.
+ * </p>
+ */
+class ExceptionClassifier {
+
+    enum Outcome {
+        /**
+         * The failure is retryable
+         */
+        RETRY,
+        /**
+         * The failure matches {@code abortOn}
+         */
+        ABORT,
+        /**
+         * The failure does not match {@code retryOn}
+         */
+        FAIL;
+    }
+
+    ExceptionClassifier(Class<?>[] retryOn, Class<?>[] abortOn) {
+        this.outcomes = new ClassValue<Outcome>() {
+            @Override
+            protected Outcome computeValue(Class<?> type) {
+                if (Arrays.stream(abortOn).anyMatch(ex -> ex.isAssignableFrom(type))) {
+                    return Outcome.ABORT;
+                }
+                if (retryOn.length == 0 || Arrays.stream(retryOn).anyMatch(ex -> ex.isAssignableFrom(type))) {
+                    return Outcome.RETRY;
+                }
+                return Outcome.FAIL;
+            }
+        };
+    }
+
+    Outcome classify(Throwable failure) {
+        return outcomes.get(failure.getClass());
+    }
+
+    boolean isRetryable(Throwable failure) {
+        return classify(failure) == Outcome.RETRY;
+    }
+
+    private final ClassValue<Outcome> outcomes;
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.Unmanaged;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.faulttolerance.ExecutionContext;
+import org.eclipse.microprofile.faulttolerance.FallbackHandler;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+
+/**
+ * Provides {@link FallbackHandler} instances according to the lifecycle configured for the handler class.
+ * <p>
+ * The lifecycle is read from the {@code <handler class name>/Fallback/lifecycle} config property, or from the {@code Fallback/lifecycle} property for all
+ * handlers. Supported values are:
+ * </p>
+ * <ul>
+ * <li>{@code INVOCATION} (default) - a new instance is created, injected and destroyed for each fallback invocation,</li>
+ * <li>{@code SINGLETON} - a single instance is created on first use and reused, the handler must be stateless and thread-safe,</li>
+ * <li>{@code POOLED} - instances are reused through a pool bounded by {@code <handler class name>/Fallback/poolSize} (default
+ * {@value #DEFAULT_POOL_SIZE}), each instance serves a single invocation at a time.</li>
+ * </ul>
+ * <p>
+ * A provider is created once per handler class and shared by all the plans which use the handler class, the lifecycle and pool size are therefore read
+ * once. The instances held by the provider are destroyed by {@link #close()} on shutdown.
+ * </p>
+ */
+abstract class FallbackHandlerProvider {
+
+    static final String LIFECYCLE = "lifecycle";
+
+    static final String POOL_SIZE = "poolSize";
+
+    static final int DEFAULT_POOL_SIZE = 16;
+
+    enum Lifecycle {
+        INVOCATION, SINGLETON, POOLED;
+    }
+
+    @SuppressWarnings("unchecked")
+    static FallbackHandlerProvider of(BeanManager beanManager, Class<?> handlerClass) {
+        Unmanaged<FallbackHandler<?>> unmanaged = (Unmanaged<FallbackHandler<?>>) new Unmanaged<>(beanManager, handlerClass);
+        Config config = ConfigProvider.getConfig();
+        String prefix = handlerClass.getName() + "/Fallback/";
+        String lifecycle = config.getOptionalValue(prefix + LIFECYCLE, String.class)
+                .orElse(config.getOptionalValue("Fallback/" + LIFECYCLE, String.class).orElse(Lifecycle.INVOCATION.name()));
+        switch (parseLifecycle(lifecycle, handlerClass)) {
+            case SINGLETON:
+                return new Singleton(unmanaged);
+            case POOLED:
+                int poolSize = config.getOptionalValue(prefix + POOL_SIZE, Integer.class).orElse(DEFAULT_POOL_SIZE);
+                if (poolSize < 1) {
+                    throw new FaultToleranceDefinitionException("Invalid pool size for fallback handler " + handlerClass + " : shouldn't be lower than 1");
+                }
+                return new Pooled(unmanaged, poolSize);
+            default:
+                return new PerInvocation(unmanaged);
+        }
+    }
+
+    private static Lifecycle parseLifecycle(String value, Class<?> handlerClass) {
+        try {
+            return Lifecycle.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new FaultToleranceDefinitionException("Invalid lifecycle " + value + " for fallback handler " + handlerClass, e);
+        }
+    }
+
+    protected final Unmanaged<FallbackHandler<?>> unmanaged;
+
+    FallbackHandlerProvider(Unmanaged<FallbackHandler<?>> unmanaged) {
+        this.unmanaged = unmanaged;
+    }
+
+    /**
+     *
+     * @param ctx
+     * @return the result of the fallback handler
+     */
+    abstract Object handle(ExecutionContext ctx);
+
+    /**
+     * Destroys the instances held by this provider. An instance in use is destroyed once its invocation completes.
+     */
+    abstract void close();
+
+    protected Unmanaged.UnmanagedInstance<FallbackHandler<?>> newInstance() {
+        return unmanaged.newInstance().produce().inject().postConstruct();
+    }
+
+    protected static void destroy(Unmanaged.UnmanagedInstance<FallbackHandler<?>> instance) {
+        instance.preDestroy().dispose();
+    }
+
+    static class PerInvocation extends FallbackHandlerProvider {
+
+        PerInvocation(Unmanaged<FallbackHandler<?>> unmanaged) {
+            super(unmanaged);
+        }
+
+        @Override
+        Object handle(ExecutionContext ctx) {
+            Unmanaged.UnmanagedInstance<FallbackHandler<?>> instance = newInstance();
+            try {
+                return instance.get().handle(ctx);
+            } finally {
+                // The instance exists to service a single invocation only
+                destroy(instance);
+            }
+        }
+
+        @Override
+        void close() {
+            // No instance is held
+        }
+
+    }
+
+    static class Singleton extends FallbackHandlerProvider {
+
+        Singleton(Unmanaged<FallbackHandler<?>> unmanaged) {
+            super(unmanaged);
+        }
+
+        @Override
+        Object handle(ExecutionContext ctx) {
+            Unmanaged.UnmanagedInstance<FallbackHandler<?>> current = instance;
+            if (current == null) {
+                synchronized (this) {
+                    current = instance;
+                    if (current == null) {
+                        current = newInstance();
+                        instance = current;
+                    }
+                }
+            }
+            return current.get().handle(ctx);
+        }
+
+        @Override
+        synchronized void close() {
+            if (instance != null) {
+                destroy(instance);
+                instance = null;
+            }
+        }
+
+        private volatile Unmanaged.UnmanagedInstance<FallbackHandler<?>> instance;
+
+    }
+
+    static class Pooled extends FallbackHandlerProvider {
+
+        Pooled(Unmanaged<FallbackHandler<?>> unmanaged, int poolSize) {
+            super(unmanaged);
+            this.pool = new ArrayBlockingQueue<>(poolSize);
+        }
+
+        @Override
+        Object handle(ExecutionContext ctx) {
+            Unmanaged.UnmanagedInstance<FallbackHandler<?>> instance = pool.poll();
+            if (instance == null) {
+                instance = newInstance();
+            }
+            try {
+                return instance.get().handle(ctx);
+            } finally {
+                // Surplus instances are destroyed so that the pool stays bounded
+                if (closed || !pool.offer(instance)) {
+                    destroy(instance);
+                } else if (closed && pool.remove(instance)) {
+                    // Closed in the meantime
+                    destroy(instance);
+                }
+            }
+        }
+
+        @Override
+        void close() {
+            closed = true;
+            Unmanaged.UnmanagedInstance<FallbackHandler<?>> instance;
+            while ((instance = pool.poll()) != null) {
+                destroy(instance);
+            }
+        }
+
+        private final BlockingQueue<Unmanaged.UnmanagedInstance<FallbackHandler<?>>> pool;
+
+        private volatile boolean closed;
+
+    }
+
+}
@@ -16,15 +16,28 @@
 
 package org.wildfly.swarm.microprofile.faulttolerance;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
 import javax.enterprise.inject.spi.Annotated;
 import javax.enterprise.inject.spi.AnnotatedConstructor;
 import javax.enterprise.inject.spi.AnnotatedField;
@@ -32,10 +45,13 @@ import javax.enterprise.inject.spi.AnnotatedMethod;
 import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.ProcessAnnotatedType;
 import javax.enterprise.inject.spi.WithAnnotations;
 
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.faulttolerance.Asynchronous;
 import org.eclipse.microprofile.faulttolerance.Bulkhead;
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
@@ -43,6 +59,7 @@ import org.eclipse.microprofile.faulttolerance.Fallback;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.faulttolerance.Timeout;
 import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+import org.jboss.logging.Logger;
 import org.wildfly.swarm.microprofile.faulttolerance.config.BulkheadConfig;
 import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
 import org.wildfly.swarm.microprofile.faulttolerance.config.FallbackConfig;
@@ -94,19 +111,209 @@ public class HystrixExtension implements Extension {
         methods.forEach(m -> {
             if (!Future.class.equals(m.getJavaMember().getReturnType()))
                 throw new FaultToleranceDefinitionException("Invalid @Asynchronous on " + m + " : the return type must be java.util.concurrent.Future");
+            collect(m);
         });
     }
 
+    void initCommands(@Observes AfterDeploymentValidation adv, BeanManager bm) {
+        Config config = ConfigProvider.getConfig();
+        this.beanManager = bm;
+        this.nonFallBackEnable = config.getOptionalValue("MP_Fault_Tolerance_NonFallback_Enabled", Boolean.class).orElse(true);
+        this.syncCircuitBreakerEnabled = config.getOptionalValue(HystrixCommandInterceptor.SYNC_CIRCUIT_BREAKER_KEY, Boolean.class).orElse(true);
+        this.hystrixBypassEnabled = config.getOptionalValue(HystrixCommandInterceptor.HYSTRIX_BYPASS_KEY, Boolean.class).orElse(true);
+        this.nonBlockingRetryEnabled = config.getOptionalValue(HystrixCommandInterceptor.NON_BLOCKING_RETRY_KEY, Boolean.class).orElse(false);
+        boolean stateShared = config.getOptionalValue(HystrixCommandInterceptor.CIRCUIT_BREAKER_STATE_SHARED_KEY, Boolean.class).orElse(false);
+        config.getOptionalValue(HystrixCommandInterceptor.CIRCUIT_BREAKER_STATE_FILE_KEY, String.class).ifPresent(path -> openStateFile(path, stateShared));
+
+        warmUp(adv, config.getOptionalValue(HystrixCommandInterceptor.WARMUP_PARALLELISM_KEY, Integer.class).orElse(1));
+        configEpoch.start(config.getOptionalValue(HystrixCommandInterceptor.CONFIG_REFRESH_INTERVAL_KEY, Long.class).orElse(0L));
+    }
+
+    void shutdown(@Observes BeforeShutdown bs) {
+        configEpoch.stop();
+        retryScheduler.stop();
+        circuitBreakers.close();
+        fallbackHandlerProviders.values().forEach(FallbackHandlerProvider::close);
+        fallbackHandlerProviders.clear();
+    }
+
+    /**
+     *
+     * @param method
+     * @return the invocation metadata of the given method for the current config epoch
+     */
+    CommandMetadata getCommandMetadata(Method method) {
+        long epoch = configEpoch.current();
+        CommandMetadata metadata = commandMetadataMap.get(method);
+        if (metadata == null || metadata.getConfigEpoch() != epoch) {
+            metadata = commandMetadataMap.compute(method, (m, current) -> current == null ? createMetadata(m, epoch)
+                    : current.getConfigEpoch() == epoch ? current : rebuildMetadata(current, m, epoch));
+        }
+        return metadata;
+    }
+
+    ConfigEpoch getConfigEpoch() {
+        return configEpoch;
+    }
+
+    CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return circuitBreakers;
+    }
+
+    private CommandMetadata createMetadata(Method method, long epoch) {
+        return new CommandMetadata(method, this::getFallbackHandlerProvider, nonFallBackEnable, syncCircuitBreakerEnabled, hystrixBypassEnabled, nonBlockingRetryEnabled,
+                circuitBreakers, retryBudgets, retryScheduler, epoch);
+    }
+
+    /**
+     *
+     * @param current
+     * @param method
+     * @param epoch
+     * @return the plan built for the config epoch, or the current plan if the config of the epoch is not valid
+     */
+    private CommandMetadata rebuildMetadata(CommandMetadata current, Method method, long epoch) {
+        try {
+            return createMetadata(method, epoch);
+        } catch (FaultToleranceDefinitionException e) {
+            // Not rebuilt again until the next config change
+            LOGGER.warnf(e, "Invalid fault tolerance config of %s ignored - the previous config is still used", method);
+            current.retainFor(epoch);
+            return current;
+        }
+    }
+
+    /**
+     *
+     * @param handlerClass
+     * @return the provider of the given fallback handler class, shared by the plans of all the config epochs
+     */
+    private FallbackHandlerProvider getFallbackHandlerProvider(Class<?> handlerClass) {
+        return fallbackHandlerProviders.computeIfAbsent(handlerClass, c -> FallbackHandlerProvider.of(beanManager, c));
+    }
+
+    /**
+     * Builds the metadata of all the fault tolerance operations found during type discovery, so that the first invocations do not pay for config
+     * resolution and Hystrix initialization. An invalid definition found while building the metadata is a deployment problem.
+     *
+     * @param adv
+     * @param parallelism
+     */
+    private void warmUp(AfterDeploymentValidation adv, int parallelism) {
+        long start = System.nanoTime();
+        if (parallelism > 1 && faultToleranceOperations.size() > 1) {
+            // Config resolution depends on the TCCL
+            ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread thread = new Thread(r, "fault-tolerance-warmup");
+                thread.setContextClassLoader(tccl);
+                return thread;
+            });
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Method method : faultToleranceOperations) {
+                    futures.add(executor.submit(() -> warmUp(method)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        // The deployment problems are reported by the observer thread
+                        adv.addDeploymentProblem(e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executor.shutdown();
+            }
+        } else {
+            for (Method method : faultToleranceOperations) {
+                try {
+                    warmUp(method);
+                } catch (FaultToleranceDefinitionException e) {
+                    adv.addDeploymentProblem(e);
+                }
+            }
+        }
+        LOGGER.debugf("%d fault tolerance operations initialized in %d ms", faultToleranceOperations.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void openStateFile(String path, boolean shared) {
+        try {
+            circuitBreakers.setStateFile(CircuitBreakerStateFile.open(Paths.get(path), shared));
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Circuit breaker state persistence disabled - unable to open the state file: %s", path);
+        }
+    }
+
+    /**
+     *
+     * @param method
+     * @throws FaultToleranceDefinitionException if the fault tolerance definition of the method is invalid
+     */
+    private void warmUp(Method method) {
+        try {
+            getCommandMetadata(method).warmUp();
+        } catch (FaultToleranceDefinitionException e) {
+            commandMetadataMap.remove(method);
+            throw e;
+        } catch (RuntimeException e) {
+            // Not fatal, the metadata is built again on the first invocation
+            LOGGER.warnf(e, "Unable to initialize fault tolerance operation %s", method);
+            commandMetadataMap.remove(method);
+        }
+    }
+
+    private void collect(AnnotatedMethod<?> annotatedMethod) {
+        Method method = annotatedMethod.getJavaMember();
+        int modifiers = method.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers) && !Object.class.equals(method.getDeclaringClass())) {
+            faultToleranceOperations.add(method);
+        }
+    }
+
     private void validate(ProcessAnnotatedType<?> pat, Function<Annotated, GenericConfig<?>> configProvider, Class<? extends Annotation> annotationType) {
         AnnotatedType<?> at = pat.getAnnotatedType();
 
         if (at.isAnnotationPresent(annotationType)) {
             configProvider.apply(at).validate();
+            at.getMethods().forEach(this::collect);
         }
 
-        at.getMethods().stream().filter(m -> m.isAnnotationPresent(annotationType)).forEach(m -> configProvider.apply(m).validate());
+        at.getMethods().stream().filter(m -> m.isAnnotationPresent(annotationType)).forEach(m -> {
+            configProvider.apply(m).validate();
+            collect(m);
+        });
     }
 
+    private static final Logger LOGGER = Logger.getLogger(HystrixExtension.class);
+
+    private final ConfigEpoch configEpoch = new ConfigEpoch();
+
+    private final Set<Method> faultToleranceOperations = ConcurrentHashMap.newKeySet();
+
+    private final Map<Method, CommandMetadata> commandMetadataMap = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
+
+    private final RetryScheduler retryScheduler = new RetryScheduler();
+
+    private final CircuitBreakerRegistry circuitBreakers = new CircuitBreakerRegistry();
+
+    private final Map<Class<?>, FallbackHandlerProvider> fallbackHandlerProviders = new ConcurrentHashMap<>();
+
+    private BeanManager beanManager;
+
+    private boolean nonFallBackEnable;
+
+    private boolean syncCircuitBreakerEnabled;
+
+    private boolean hystrixBypassEnabled;
+
+    private boolean nonBlockingRetryEnabled;
+
     public static class HystrixInterceptorBindingAnnotatedType<T extends Annotation> implements AnnotatedType<T> {
 
         public HystrixInterceptorBindingAnnotatedType(AnnotatedType<T> delegate) {
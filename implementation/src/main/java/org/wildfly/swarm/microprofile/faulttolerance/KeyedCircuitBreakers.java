@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+/**
+ * The circuit breakers of a method keyed by the value of one of its parameters, see {@link CircuitBreakerConfig#KEY_PARAMETER}.
+ * <p>
+ * The number of circuit breakers is bounded by {@link CircuitBreakerConfig#getMaxKeys()}. Once the bound is exceeded the least recently used tenth of
+ * the circuit breakers is evicted in a single batch by the thread which exceeded it, so that the eviction cost is amortized over the insertions. The
+ * lookup of an existing circuit breaker does not lock.
+ * </p>
+ * <p>
+ * The access time of a circuit breaker is only written if the stored one is older than the access resolution, so that the lookups of a hot key do not
+ * keep writing the same cache line. The eviction selects the access time of the last evicted circuit breaker in linear time, without sorting.
+ * </p>
+ */
+class KeyedCircuitBreakers {
+
+    private static final Object NULL_KEY = new Object();
+
+    private static final long ACCESS_RESOLUTION = TimeUnit.MILLISECONDS.toNanos(100);
+
+    KeyedCircuitBreakers(CircuitBreakerConfig config) {
+        this(config, ACCESS_RESOLUTION);
+    }
+
+    /**
+     *
+     * @param config
+     * @param accessResolution the access resolution in nanoseconds
+     */
+    KeyedCircuitBreakers(CircuitBreakerConfig config, long accessResolution) {
+        this.config = config;
+        this.accessResolution = accessResolution;
+    }
+
+    /**
+     *
+     * @param key
+     * @return the circuit breaker for the given key, a new one is created if needed
+     */
+    SynchronousCircuitBreaker get(Object key) {
+        if (key == null) {
+            key = NULL_KEY;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(key, k -> new Entry(new SynchronousCircuitBreaker(config)));
+            if (entries.size() > config.getMaxKeys()) {
+                evict();
+            }
+        }
+        long now = System.nanoTime();
+        if (now - entry.lastAccess > accessResolution) {
+            entry.lastAccess = now;
+        }
+        return entry.circuitBreaker;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * The new config applies to all the existing circuit breakers and to the ones created later.
+     *
+     * @param config
+     */
+    void setConfig(CircuitBreakerConfig config) {
+        this.config = config;
+        entries.values().forEach(entry -> entry.circuitBreaker.setConfig(config));
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            // Another thread is evicting
+            return;
+        }
+        try {
+            int maxKeys = config.getMaxKeys();
+            if (entries.size() <= maxKeys) {
+                return;
+            }
+            // The access times keep changing, select in a snapshot of them
+            long[] accessTimes = new long[entries.size()];
+            int size = 0;
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext() && size < accessTimes.length;) {
+                accessTimes[size++] = iterator.next().lastAccess;
+            }
+            int toEvict = Math.min(size, size - maxKeys + maxKeys / 10);
+            if (toEvict <= 0) {
+                return;
+            }
+            long threshold = select(accessTimes, size, toEvict - 1);
+            // An entry accessed since the snapshot is newer than the threshold
+            for (Map.Entry<Object, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().lastAccess - threshold <= 0) {
+                    entries.remove(candidate.getKey(), candidate.getValue());
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Quickselect of the k-th smallest access time, reorders the values.
+     *
+     * @param values
+     * @param size the number of values
+     * @param k
+     * @return the k-th smallest of the values, starting at 0
+     */
+    static long select(long[] values, int size, int k) {
+        int left = 0;
+        int right = size - 1;
+        while (left < right) {
+            long pivot = values[(left + right) >>> 1];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] - pivot < 0) {
+                    i++;
+                }
+                while (values[j] - pivot > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    long value = values[i];
+                    values[i++] = values[j];
+                    values[j--] = value;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long accessResolution;
+
+    private volatile CircuitBreakerConfig config;
+
+    private static final class Entry {
+
+        Entry(SynchronousCircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            this.lastAccess = System.nanoTime();
+        }
+
+        private final SynchronousCircuitBreaker circuitBreaker;
+
+        private volatile long lastAccess;
+
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+/**
+ * The rolling window of outcomes used by a closed {@link SynchronousCircuitBreaker} to decide whether the circuit should open.
+ *
+ * @see CountWindow
+ * @see TimeWindow
+ */
+interface OutcomeWindow {
+
+    static OutcomeWindow of(CircuitBreakerConfig config) {
+        return config.isTimeWindow() ? new TimeWindow(config.getWindowSeconds()) : new CountWindow(config.getRequestVolumeThreshold());
+    }
+
+    /**
+     *
+     * @param failure
+     * @param slow true if the execution time reached {@link CircuitBreakerConfig#getSlowCallDurationNanos()}
+     */
+    void record(boolean failure, boolean slow);
+
+    /**
+     *
+     * @return the number of outcomes in the window
+     */
+    long getRequests();
+
+    /**
+     *
+     * @return the number of failures in the window
+     */
+    long getFailures();
+
+    /**
+     *
+     * @return the number of slow calls in the window, failed or not
+     */
+    long getSlowCalls();
+
+    /**
+     *
+     * @param config
+     * @return true if this window has the type and size configured
+     */
+    boolean matches(CircuitBreakerConfig config);
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket limiting the retries of a fault tolerance operation.
+ * <p>
+ * Each successful first attempt deposits {@code ratio} tokens and each retry withdraws one token, so that in the long run the retries do not exceed
+ * {@code ratio} times the successful requests. The bucket holds at most {@code capacity} tokens and is full initially.
+ * </p>
+ *
+ * @see org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig#BUDGET_RATIO
+ */
+class RetryBudget {
+
+    // Tokens are stored as fixed-point numbers
+    private static final long SCALE = 1000;
+
+    RetryBudget(double ratio, int capacity) {
+        configure(ratio, capacity);
+        this.tokens = new AtomicLong(this.capacity);
+    }
+
+    void configure(double ratio, int capacity) {
+        this.deposit = (long) (ratio * SCALE);
+        this.capacity = capacity * SCALE;
+    }
+
+    void deposit() {
+        long current;
+        long next;
+        do {
+            current = tokens.get();
+            next = Math.min(capacity, current + deposit);
+            if (next <= current) {
+                return;
+            }
+        } while (!tokens.compareAndSet(current, next));
+    }
+
+    /**
+     *
+     * @return true if a token was withdrawn, false if the budget is exhausted
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    private final AtomicLong tokens;
+
+    private volatile long deposit;
+
+    private volatile long capacity;
+
+}
@@ -16,6 +16,7 @@
 package org.wildfly.swarm.microprofile.faulttolerance;
 
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
@@ -28,8 +29,23 @@ class RetryContext {
 
     private final Long start;
 
-    RetryContext(RetryConfig config) {
+    private final ExceptionClassifier classifier;
+
+    private final BackOffStrategy backOff;
+
+    private final RetryBudget budget;
+
+    private int retries;
+
+    private boolean retried;
+
+    private long previousDelay;
+
+    RetryContext(RetryConfig config, ExceptionClassifier classifier, BackOffStrategy backOff, RetryBudget budget) {
         this.config = config;
+        this.classifier = classifier;
+        this.backOff = backOff;
+        this.budget = budget;
         start = System.nanoTime();
         remainingAttempts = new AtomicInteger(config.getMaxExecNumber());
     }
@@ -58,15 +74,33 @@ class RetryContext {
         return config.getDelay();
     }
 
-    public Class<?>[] getAbortOn() {
-        return config.getAbortOn();
+    public boolean isRetryable(Throwable failure) {
+        return classifier.isRetryable(failure);
+    }
+
+    /**
+     * Must be invoked once all the other retry conditions are met.
+     *
+     * @return true if the retry budget, if any, allows a retry
+     */
+    public boolean acquireRetry() {
+        if (budget != null && !budget.tryWithdraw()) {
+            return false;
+        }
+        retried = true;
+        return true;
     }
 
-    public Class<?>[] getRetryOn() {
-        return config.getRetryOn();
+    /**
+     * Refills the retry budget, if any, when the first attempt succeeded.
+     */
+    public void onSuccess() {
+        if (budget != null && !retried) {
+            budget.deposit();
+        }
     }
 
-    public Long getJitter() {
+    public long getJitter() {
         return config.getJitter();
     }
 
@@ -74,6 +108,22 @@ class RetryContext {
         return config.getJitterDelayUnit();
     }
 
+    /**
+     * Attempts of a single invocation are sequential, there is no need to synchronize the back-off state.
+     *
+     * @return the delay in milliseconds before the next attempt, never beyond the max duration of the retry
+     * @see BackOffStrategy
+     */
+    public long nextDelay() {
+        if (config.getDelay() <= 0) {
+            return 0;
+        }
+        previousDelay = backOff.nextDelay(++retries, previousDelay, config);
+        // A custom strategy may return any value, the next attempt must not start after the max duration
+        long remaining = TimeUnit.NANOSECONDS.toMillis(config.getMaxDuration() - (System.nanoTime() - start));
+        return Math.max(0, Math.min(previousDelay, remaining));
+    }
+
     @Override
     public String toString() {
         return "RetryContext [remainingAttempts=" + remainingAttempts + ", start=" + start + "]";
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the attempts of non-blocking retries and hedged invocations.
+ * <p>
+ * A scheduled task only submits the next attempt and never blocks, a single thread is therefore shared by all the fault tolerance operations. The thread
+ * is started on first use.
+ * </p>
+ *
+ * @see HystrixCommandInterceptor#NON_BLOCKING_RETRY_KEY
+ * @see org.wildfly.swarm.microprofile.faulttolerance.config.HedgeConfig
+ */
+class RetryScheduler {
+
+    /**
+     *
+     * @param attempt
+     * @param delay the delay in milliseconds
+     * @return the scheduled attempt
+     */
+    ScheduledFuture<?> schedule(Runnable attempt, long delay) {
+        return getExecutor().schedule(attempt, delay, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ScheduledThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "fault-tolerance-retry-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+        }
+        return executor;
+    }
+
+    private ScheduledThreadPoolExecutor executor;
+
+}
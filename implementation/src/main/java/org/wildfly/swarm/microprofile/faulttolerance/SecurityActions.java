@@ -16,11 +16,8 @@
 package org.wildfly.swarm.microprofile.faulttolerance;
 
 import java.lang.reflect.AccessibleObject;
-import java.lang.reflect.Field;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.security.PrivilegedActionException;
-import java.security.PrivilegedExceptionAction;
 
 /**
  *
@@ -28,18 +25,6 @@ import java.security.PrivilegedExceptionAction;
  */
 final class SecurityActions {
 
-    static Field getDeclaredField(Class<?> clazz, String name) throws NoSuchFieldException, PrivilegedActionException {
-        if (System.getSecurityManager() == null) {
-            return clazz.getDeclaredField(name);
-        }
-        return AccessController.doPrivileged(new PrivilegedExceptionAction<Field>() {
-            @Override
-            public Field run() throws NoSuchFieldException {
-                return clazz.getDeclaredField(name);
-            }
-        });
-    }
-
     static void setAccessible(final AccessibleObject accessibleObject) {
         if (System.getSecurityManager() == null) {
             accessibleObject.setAccessible(true);
@@ -1,19 +1,45 @@
 package org.wildfly.swarm.microprofile.faulttolerance;
 
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.logging.Logger;
 import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
 
-import com.netflix.hystrix.HystrixCircuitBreaker;
-
 /**
- * This is an implementation of the HystrixCircuitBreaker that is expected to be used synchronously by the
- * HystrixCommand implementation to track the state of the circuit. This is needed for the current TCK
- * tests as monitoring circuit state in a background thread does not work with the TCK expectations.
+ * This is a circuit breaker that is expected to be used synchronously by the command executors to track the state of the circuit. This is needed for
+ * the current TCK tests as monitoring circuit state in a background thread does not work with the TCK expectations. Hystrix does not know about this
+ * circuit breaker, the executors check it before each attempt. The instances are held by the {@link CircuitBreakerRegistry}.
+ * <p>
+ * The whole state of the circuit is packed in a single {@code long} updated with CAS, so that recording an outcome and making a transition is lock-free
+ * and allocation-free:
+ * </p>
+ * <pre>
+ * | status (2 bits) | epoch (20 bits) | trial permits (14 bits) | success count (14 bits) | failure count (14 bits) |
+ * </pre>
+ * <p>
+ * The epoch is incremented on every transition so that a stale state word never matches. The permits and counts are only used by the HALF_OPEN state:
+ * at most {@link CircuitBreakerConfig#getSuccessThreshold()} trial executions are admitted, the other requests are rejected until the circuit closes or
+ * opens again. In the OPEN state the 42 low bits hold the deadline of the delay, computed from {@link System#nanoTime()} when the circuit opens and
+ * expressed in milliseconds since the creation of the circuit breaker, so that an open circuit rejects a request with a single read and comparison.
+ * </p>
+ * <p>
+ * In the CLOSED state the outcomes are recorded in an {@link OutcomeWindow}, either the last {@link CircuitBreakerConfig#getRequestVolumeThreshold()}
+ * executions or the executions of the last {@link CircuitBreakerConfig#getWindowSeconds()} seconds. The circuit opens once the window holds at least
+ * {@link CircuitBreakerConfig#getRequestVolumeThreshold()} executions and the failure ratio reaches {@link CircuitBreakerConfig#getFailureRatio()}, or
+ * the slow call ratio reaches {@link CircuitBreakerConfig#getSlowCallRateThreshold()} if slow calls are tracked. A slow trial execution counts as a
+ * failure in the HALF_OPEN state. The thread which opens or closes the circuit replaces the window with a new one, the window is never cleared in place.
+ * </p>
+ * <p>
+ * If a {@link CircuitBreakerStateFile.Slot} is given, the transitions are stored in the slot and the circuit breaker starts in the stored state: an open
+ * circuit stays open until the stored delay elapses, a half-open circuit starts open with the delay elapsed so that the next requests are trials.
+ * </p>
+ * <p>
+ * If the slot is shared with other processes, a closed circuit, or an open circuit whose delay elapsed, reads the slot before a request is allowed. A
+ * circuit opened by another process is adopted until the delay stored by that process elapses, so that all the processes fast-fail. Only the OPEN state
+ * is adopted, each process makes its own trial executions.
+ * </p>
  */
-class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
+class SynchronousCircuitBreaker {
 
     private static final Logger LOGGER = Logger.getLogger(SynchronousCircuitBreaker.class);
 
@@ -21,104 +47,308 @@ class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
         CLOSED, OPEN, HALF_OPEN;
     }
 
+    private static final Status[] STATUSES = Status.values();
+
+    private static final int COUNT_BITS = 14;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private static final int PERMITS_SHIFT = 2 * COUNT_BITS;
+
+    private static final long ONE_PERMIT = 1L << PERMITS_SHIFT;
+
+    private static final int EPOCH_SHIFT = 3 * COUNT_BITS;
+
+    private static final long EPOCH_MASK = (1L << 20) - 1;
+
+    private static final int STATUS_SHIFT = 62;
+
+    private static final long TIME_MASK = (1L << EPOCH_SHIFT) - 1;
+
     SynchronousCircuitBreaker(CircuitBreakerConfig config) {
-        this.config = config;
-        close();
+        this(config, null);
     }
 
     /**
-     * Noop, the hystrix framework calls this more than once so we ignore it
-     * @See #incSuccessCount()
+     *
+     * @param config
+     * @param slot the slot which holds the persistent state or {@code null}
      */
-    @Override
-    public void markSuccess() {
+    SynchronousCircuitBreaker(CircuitBreakerConfig config, CircuitBreakerStateFile.Slot slot) {
+        this.config = config;
+        this.window = OutcomeWindow.of(config);
+        this.origin = System.nanoTime();
+        this.slot = slot;
+        this.shared = slot != null && slot.isShared();
+        long initial = pack(Status.CLOSED, 0, 0);
+        if (slot != null) {
+            long stored = slot.load();
+            if (CircuitBreakerStateFile.status(stored) != Status.CLOSED) {
+                long remaining = CircuitBreakerStateFile.openUntil(stored) - System.currentTimeMillis();
+                initial = pack(Status.OPEN, 0, remaining > 0 ? Math.min(remaining, TIME_MASK) : 0);
+                LOGGER.debugf("Circuit restored as: %s", Status.OPEN);
+            }
+        }
+        this.state = new AtomicLong(initial);
     }
 
     /**
-     * Noop, the hystrix framework calls this more than once so we ignore it
-     * @See #incFailureCount()
+     *
+     * @return true if the circuit is closed, half-open and a trial permit is available, or open and the delay elapsed - in which case the circuit
+     *         transitions to half-open. In the two latter cases the request holds a trial permit until its outcome is recorded or it is released.
+     * @see #release()
      */
-    @Override
-    public void markNonSuccess() {
+    boolean allowRequest() {
+        while (true) {
+            long current = state.get();
+            Status status = status(current);
+            if (status == Status.CLOSED) {
+                if (!shared || !adoptOpenState(current)) {
+                    return true;
+                }
+                continue;
+            }
+            long next;
+            if (status == Status.HALF_OPEN) {
+                if (permits(current) >= getMaxPermits()) {
+                    return false;
+                }
+                next = current + ONE_PERMIT;
+            } else {
+                if (currentMillis() < (current & TIME_MASK)) {
+                    return false;
+                }
+                if (shared && adoptOpenState(current)) {
+                    continue;
+                }
+                next = pack(Status.HALF_OPEN, epoch(current) + 1, ONE_PERMIT);
+            }
+            if (state.compareAndSet(current, next)) {
+                if (status == Status.OPEN) {
+                    onTransition(status, next);
+                }
+                return true;
+            }
+        }
     }
 
-    @Override
-    public boolean isOpen() {
-        LOGGER.debugf("isOpen, %s, failures=%d, total=%d", state.get(), failureCount, getTotalCount());
-        return state.get().getState() == Status.OPEN;
+    /**
+     *
+     * @param executionTime the execution time in nanoseconds
+     */
+    void incSuccessCount(long executionTime) {
+        record(true, executionTime);
     }
 
     /**
      *
-     * @return true if the circuit is closed or open and within the delay window
+     * @param executionTime the execution time in nanoseconds
      */
-    @Override
-    public boolean allowRequest() {
-        int execCount = getTotalCount();
-        LOGGER.debugf("allowRequest, execCount=%d\n", execCount);
-        boolean allowRequest = state.get().allowsExecution(execCount);
-        return allowRequest;
+    void incFailureCount(long executionTime) {
+        record(false, executionTime);
     }
 
-    @Override
-    public boolean attemptExecution() {
-        boolean attemptExecution = state.get().allowsExecution(getTotalCount());
-        LOGGER.debugf("attemptExecution(%s), state=%s", attemptExecution, state.get().getState());
-        return attemptExecution;
+    /**
+     * Releases the trial permit of an admitted request which will not record any outcome, e.g. a cancelled execution.
+     */
+    void release() {
+        while (true) {
+            long current = state.get();
+            if (status(current) != Status.HALF_OPEN || permits(current) <= successes(current) + failures(current)) {
+                return;
+            }
+            if (state.compareAndSet(current, current - ONE_PERMIT)) {
+                return;
+            }
+        }
     }
 
-    int incSuccessCount() {
-        int count = successCount.incrementAndGet();
-        state.get().onSuccess();
-        LOGGER.debugf("incSuccessCount(%d), state=%s", count, state.get().getState());
-        return count;
-    }
-    int incFailureCount() {
-        int count = failureCount.incrementAndGet();
-        state.get().onFailure();
-        LOGGER.debugf("incFailureCount(%d), state=%s", count, state.get().getState());
-        return count;
+    Status getStatus() {
+        return status(state.get());
     }
 
     CircuitBreakerConfig getConfig() {
         return config;
     }
 
-    void open() {
-        Status prevState = state.get().getState();
-        state.set(new OpenState(this));
-        LOGGER.debugf("Transition from: %s to: OPEN\n", prevState);
-        reset();
+    /**
+     * The new config applies to the next recorded outcome. The rolling window starts over if its type or size changes.
+     *
+     * @param config
+     */
+    void setConfig(CircuitBreakerConfig config) {
+        if (!window.matches(config)) {
+            window = OutcomeWindow.of(config);
+        }
+        this.config = config;
+    }
+
+    private void record(boolean success, long executionTime) {
+        long slowCallDuration = config.getSlowCallDurationNanos();
+        boolean slow = slowCallDuration > 0 && executionTime >= slowCallDuration;
+        long closed = state.get();
+        if (status(closed) == Status.CLOSED) {
+            OutcomeWindow current = window;
+            current.record(!success, slow);
+            // The state word of a closed circuit only changes on transition, a failed CAS means the circuit is not closed anymore
+            if ((!success || slow) && shouldOpen(current)) {
+                long open = openState(closed);
+                if (state.compareAndSet(closed, open)) {
+                    onTransition(Status.CLOSED, open);
+                }
+            }
+            return;
+        }
+        while (true) {
+            long current = state.get();
+            Status status = status(current);
+            if (status != Status.HALF_OPEN) {
+                // Outcomes of executions started before the transition are ignored
+                return;
+            }
+            long permits = permits(current);
+            boolean trialSuccess = success && !slow;
+            long successes = successes(current) + (trialSuccess ? 1 : 0);
+            long failures = failures(current) + (trialSuccess ? 0 : 1);
+            if (successes + failures > permits) {
+                // Not a trial execution
+                return;
+            }
+            long next;
+            int successThreshold = getMaxPermits();
+            if (successes + failures < successThreshold) {
+                next = pack(status, epoch(current), (permits << PERMITS_SHIFT) | (successes << COUNT_BITS) | failures);
+            } else if (successes >= successThreshold) {
+                next = pack(Status.CLOSED, epoch(current) + 1, 0);
+            } else {
+                next = openState(current);
+            }
+            if (state.compareAndSet(current, next)) {
+                if (status(next) != status) {
+                    onTransition(status, next);
+                }
+                return;
+            }
+        }
+    }
+
+    private boolean shouldOpen(OutcomeWindow window) {
+        CircuitBreakerConfig config = this.config;
+        long requests = window.getRequests();
+        long failures = window.getFailures();
+        double failureRatio = config.getFailureRatio();
+        if (failureRatio <= 0 ? failures == requests : requests >= config.getRequestVolumeThreshold() && (double) failures / requests >= failureRatio) {
+            return true;
+        }
+        return config.getSlowCallDurationNanos() > 0 && requests >= config.getRequestVolumeThreshold()
+                && (double) window.getSlowCalls() / requests >= config.getSlowCallRateThreshold();
+    }
+
+    /**
+     *
+     * @param current
+     * @return true if another process stored an open circuit whose delay did not elapse yet - the state is changed unless it changed in the meantime
+     */
+    private boolean adoptOpenState(long current) {
+        long stored = slot.load();
+        if (CircuitBreakerStateFile.status(stored) != Status.OPEN) {
+            return false;
+        }
+        long remaining = CircuitBreakerStateFile.openUntil(stored) - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return false;
+        }
+        long deadline = currentMillis() + remaining;
+        // Not stored again, the slot already holds the state
+        if (state.compareAndSet(current, pack(Status.OPEN, epoch(current) + 1, deadline > TIME_MASK ? TIME_MASK : deadline))) {
+            LOGGER.debugf("Transition from: %s to: %s adopted from another process", status(current), Status.OPEN);
+        }
+        return true;
+    }
+
+    /**
+     * Invoked by the thread which made the transition only.
+     *
+     * @param from
+     * @param next the new state word
+     */
+    private void onTransition(Status from, long next) {
+        Status to = status(next);
+        LOGGER.debugf("Transition from: %s to: %s", from, to);
+        if (from == Status.CLOSED || to == Status.CLOSED) {
+            // A new window, the previous one may still be recorded in by executions started before the transition
+            window = OutcomeWindow.of(config);
+        }
+        if (slot != null) {
+            long openUntil = System.currentTimeMillis();
+            if (to == Status.OPEN) {
+                // The deadline in the state word is relative to the origin of this circuit breaker
+                openUntil += (next & TIME_MASK) - currentMillis();
+            }
+            slot.store(to, openUntil);
+        }
+    }
+
+    private long currentMillis() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+
+    /**
+     *
+     * @return the number of trial executions, the success threshold is capped by the capacity of the permits
+     */
+    private int getMaxPermits() {
+        return (int) Math.min(config.getSuccessThreshold(), COUNT_MASK);
     }
 
-    void halfOpen() {
-        Status prevState = state.get().getState();
-        state.set(new HalfOpenState(this));
-        LOGGER.debugf("Transition from: %s to: HALF_OPEN\n", prevState);
-        reset();
+    private long openState(long current) {
+        long deadline = currentMillis() + config.getDelayMillis();
+        return pack(Status.OPEN, epoch(current) + 1, deadline < 0 || deadline > TIME_MASK ? TIME_MASK : deadline);
     }
 
-    void close() {
-        Status prevState = state.get() != null ? state.get().getState() : Status.CLOSED;
-        state.set(new ClosedState(this));
-        LOGGER.debugf("Transition from: %s to: CLOSED\n", prevState);
-        reset();
+    /**
+     *
+     * @param status
+     * @param epoch
+     * @param value the trial permits and counts in the HALF_OPEN state, the deadline of the delay in the OPEN state
+     * @return the state word
+     */
+    private static long pack(Status status, long epoch, long value) {
+        return ((long) status.ordinal() << STATUS_SHIFT) | ((epoch & EPOCH_MASK) << EPOCH_SHIFT) | value;
+    }
+
+    private static Status status(long state) {
+        return STATUSES[(int) (state >>> STATUS_SHIFT)];
+    }
+
+    private static long epoch(long state) {
+        return (state >>> EPOCH_SHIFT) & EPOCH_MASK;
     }
 
-    private int getTotalCount() {
-        return successCount.get() + failureCount.get();
+    private static long permits(long state) {
+        return (state >>> PERMITS_SHIFT) & COUNT_MASK;
     }
 
-    private void reset() {
-        successCount.set(0);
-        failureCount.set(0);
-        LOGGER.debugf("reset(%s)\n", state.get().getState());
+    private static long successes(long state) {
+        return (state >>> COUNT_BITS) & COUNT_MASK;
     }
 
-    // The circuit state
-    private final AtomicReference<State> state = new AtomicReference<>();
+    private static long failures(long state) {
+        return state & COUNT_MASK;
+    }
+
+    private final AtomicLong state;
+
+    // The origin of the deadline stored in the state word, in nanoTime terms
+    private final long origin;
+
     // The circuit configuration
-    private final CircuitBreakerConfig config;
-    private AtomicInteger successCount = new AtomicInteger(0);
-    private AtomicInteger failureCount = new AtomicInteger(0);
+    private volatile CircuitBreakerConfig config;
+
+    private volatile OutcomeWindow window;
+
+    private final CircuitBreakerStateFile.Slot slot;
+
+    private final boolean shared;
+
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+/**
+ * A time-based rolling window of the outcomes of the last seconds of a circuit breaker.
+ * <p>
+ * The outcomes, failures and slow calls are counted in per-second buckets held in a ring. The counters are {@link LongAdder}s so that concurrent callers do not contend on a
+ * single memory location, the buckets are only summed when the counts are read. A bucket is replaced the first time it is hit in a new second, outcomes
+ * recorded concurrently into the replaced bucket may be lost.
+ * </p>
+ */
+class TimeWindow implements OutcomeWindow {
+
+    TimeWindow(int seconds) {
+        this(seconds, System::nanoTime);
+    }
+
+    TimeWindow(int seconds, LongSupplier nanoClock) {
+        this.buckets = new AtomicReferenceArray<>(seconds);
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    @Override
+    public void record(boolean failure, boolean slow) {
+        Bucket bucket = getBucket(currentSecond());
+        if (failure) {
+            bucket.failures.increment();
+        } else {
+            bucket.successes.increment();
+        }
+        if (slow) {
+            bucket.slowCalls.increment();
+        }
+    }
+
+    @Override
+    public long getRequests() {
+        long now = currentSecond();
+        long requests = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isCurrent(bucket, now)) {
+                requests += bucket.successes.sum() + bucket.failures.sum();
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public long getFailures() {
+        long now = currentSecond();
+        long failures = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isCurrent(bucket, now)) {
+                failures += bucket.failures.sum();
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public long getSlowCalls() {
+        long now = currentSecond();
+        long slowCalls = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (isCurrent(bucket, now)) {
+                slowCalls += bucket.slowCalls.sum();
+            }
+        }
+        return slowCalls;
+    }
+
+    @Override
+    public boolean matches(CircuitBreakerConfig config) {
+        return config.isTimeWindow() && config.getWindowSeconds() == buckets.length();
+    }
+
+    private Bucket getBucket(long second) {
+        int index = (int) (second % buckets.length());
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.second >= second) {
+                // A caller late by a whole window counts in the newer bucket
+                return bucket;
+            }
+            Bucket next = new Bucket(second);
+            if (buckets.compareAndSet(index, bucket, next)) {
+                return next;
+            }
+        }
+    }
+
+    private boolean isCurrent(Bucket bucket, long now) {
+        return bucket != null && now - bucket.second < buckets.length();
+    }
+
+    private long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(nanoClock.getAsLong() - origin);
+    }
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    private final LongSupplier nanoClock;
+
+    // Keeps the seconds positive whatever the origin of the clock
+    private final long origin;
+
+    private static final class Bucket {
+
+        Bucket(long second) {
+            this.second = second;
+        }
+
+        private final long second;
+
+        private final LongAdder successes = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder slowCalls = new LongAdder();
+
+    }
+
+}
@@ -41,10 +41,10 @@ public class BulkheadConfig extends GenericConfig<Bulkhead> {
     @Override
     public void validate() {
         if (get(VALUE, Integer.class) < 0) {
-            throw new FaultToleranceDefinitionException("Invalid Bulkhead on " + annotated.toString() + " : value shouldn't be lower than 0");
+            throw new FaultToleranceDefinitionException("Invalid Bulkhead on " + getTargetDescription() + " : value shouldn't be lower than 0");
         }
         if (get(WAITING_TASK_QUEUE, Integer.class) < 1) {
-            throw new FaultToleranceDefinitionException("Invalid Bulkhead on " + annotated.toString() + " : waitingTaskQueue shouldn't be lower than 1");
+            throw new FaultToleranceDefinitionException("Invalid Bulkhead on " + getTargetDescription() + " : waitingTaskQueue shouldn't be lower than 1");
         }
     }
 
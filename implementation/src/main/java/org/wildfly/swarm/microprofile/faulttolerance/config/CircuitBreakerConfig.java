@@ -16,12 +16,15 @@
 package org.wildfly.swarm.microprofile.faulttolerance.config;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.inject.spi.Annotated;
+import javax.enterprise.inject.spi.AnnotatedType;
 
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
@@ -47,34 +50,127 @@ public class CircuitBreakerConfig extends GenericConfig<CircuitBreaker> {
 
     public static final String SYNCHRONOUS_STATE_VALIDATION = "synchronousStateValidation";
 
+    /**
+     * Not an annotation member - the rolling window of the synchronous circuit breaker, {@value #COUNT_WINDOW} (default) for the last
+     * {@link #REQUEST_VOLUME_THRESHOLD} executions or {@value #TIME_WINDOW} for the executions of the last {@link #WINDOW_SECONDS} seconds.
+     */
+    public static final String WINDOW = "window";
+
+    /**
+     * Not an annotation member - the length of the time window in seconds.
+     */
+    public static final String WINDOW_SECONDS = "windowSeconds";
+
+    /**
+     * Not an annotation member - the execution time in milliseconds from which a call is slow, {@code 0} (default) disables the slow call tracking.
+     * Only supported by the synchronous circuit breaker.
+     */
+    public static final String SLOW_CALL_DURATION = "slowCallDuration";
+
+    /**
+     * Not an annotation member - the ratio of slow calls in the rolling window from which the circuit opens.
+     */
+    public static final String SLOW_CALL_RATE_THRESHOLD = "slowCallRateThreshold";
+
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 1.0;
+
+    /**
+     * Not an annotation member - the index of the parameter whose value is the key of the circuit breaker, so that each key gets its own circuit breaker.
+     * {@code -1} (default) means a single circuit breaker for the method. Only supported by the synchronous circuit breaker.
+     */
+    public static final String KEY_PARAMETER = "keyParameter";
+
+    /**
+     * Not an annotation member - the max number of keyed circuit breakers of a method, the least recently used ones are evicted.
+     */
+    public static final String MAX_KEYS = "maxKeys";
+
+    public static final int DEFAULT_MAX_KEYS = 1000;
+
+    /**
+     * Not an annotation member - the name of the circuit breaker, the methods which declare the same name share a single circuit breaker. The methods
+     * should declare the same circuit breaker config. Only supported by the synchronous circuit breaker.
+     */
+    public static final String NAME = "name";
+
+    public static final String COUNT_WINDOW = "COUNT";
+
+    public static final String TIME_WINDOW = "TIME";
+
+    public static final int DEFAULT_WINDOW_SECONDS = 10;
+
     private static final Logger LOGGER =  Logger.getLogger(CircuitBreakerConfig.class);
 
     public CircuitBreakerConfig(CircuitBreaker cb, Method method) {
-        super(cb, method);
+        this(cb, method, null);
     }
 
     public CircuitBreakerConfig(Annotated a) {
-        super(a.getAnnotation(CircuitBreaker.class),a);
+        this(a.getAnnotation(CircuitBreaker.class), getMethod(a), a);
+    }
+
+    private CircuitBreakerConfig(CircuitBreaker annotation, Method method, Annotated annotated) {
+        super(annotation, method, annotated);
+        delay = get(DELAY);
+        delayUnit = get(DELAY_UNIT);
+        delayMillis = Duration.of(delay, delayUnit).toMillis();
+        failureRatio = get(FAILURE_RATIO);
+        requestVolumeThreshold = get(REQUEST_VOLUME_THRESHOLD);
+        successThreshold = get(SUCCESS_THRESHOLD);
+        timeWindow = TIME_WINDOW.equalsIgnoreCase(getOptional(WINDOW, String.class).orElse(COUNT_WINDOW));
+        windowSeconds = getOptional(WINDOW_SECONDS, Integer.class).orElse(DEFAULT_WINDOW_SECONDS);
+        slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(getOptional(SLOW_CALL_DURATION, Long.class).orElse(0L));
+        slowCallRateThreshold = getOptional(SLOW_CALL_RATE_THRESHOLD, Double.class).orElse(DEFAULT_SLOW_CALL_RATE_THRESHOLD);
+        keyParameter = getOptional(KEY_PARAMETER, Integer.class).orElse(-1);
+        maxKeys = getOptional(MAX_KEYS, Integer.class).orElse(DEFAULT_MAX_KEYS);
+        name = getOptional(NAME, String.class).orElse(null);
     }
 
     @Override
     public void validate() {
         if (get(DELAY, Long.class) < 0) {
-            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + annotated.toString() + " : delay shouldn't be lower than 0");
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : delay shouldn't be lower than 0");
         }
         if (get(REQUEST_VOLUME_THRESHOLD, Integer.class) < 1) {
             throw new FaultToleranceDefinitionException(
-                    "Invalid CircuitBreaker on " + annotated.toString() + " : requestVolumeThreshold shouldn't be lower than 1");
+                    "Invalid CircuitBreaker on " + getTargetDescription() + " : requestVolumeThreshold shouldn't be lower than 1");
         }
         if (get(FAILURE_RATIO, Double.class) < 0 || get(FAILURE_RATIO, Double.class) > 1) {
-            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + annotated.toString() + " : failureRation should be between 0 and 1");
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : failureRation should be between 0 and 1");
         }
         int successThreshold = get(SUCCESS_THRESHOLD, Integer.class);
         if (successThreshold < 1) {
-            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + annotated.toString() + " : successThreshold shouldn't be lower than 1");
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : successThreshold shouldn't be lower than 1");
+        }
+        String window = getOptional(WINDOW, String.class).orElse(COUNT_WINDOW);
+        if (!COUNT_WINDOW.equalsIgnoreCase(window) && !TIME_WINDOW.equalsIgnoreCase(window)) {
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : window should be COUNT or TIME");
+        }
+        if (getOptional(WINDOW_SECONDS, Integer.class).orElse(DEFAULT_WINDOW_SECONDS) < 1) {
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : windowSeconds shouldn't be lower than 1");
+        }
+        if (getOptional(SLOW_CALL_DURATION, Long.class).orElse(0L) < 0) {
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : slowCallDuration shouldn't be lower than 0");
+        }
+        double slowCallRateThreshold = getOptional(SLOW_CALL_RATE_THRESHOLD, Double.class).orElse(DEFAULT_SLOW_CALL_RATE_THRESHOLD);
+        if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 1) {
+            throw new FaultToleranceDefinitionException(
+                    "Invalid CircuitBreaker on " + getTargetDescription() + " : slowCallRateThreshold should be greater than 0 and at most 1");
+        }
+        int keyParameter = getOptional(KEY_PARAMETER, Integer.class).orElse(-1);
+        if (keyParameter < -1) {
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : keyParameter shouldn't be lower than -1");
+        }
+        // The methods of an annotated class are checked when their invocation plan is built
+        if (!(annotated instanceof AnnotatedType) && keyParameter >= method.getParameterCount()) {
+            throw new FaultToleranceDefinitionException(
+                    "Invalid CircuitBreaker on " + getTargetDescription() + " : keyParameter should be the index of a parameter of the method");
+        }
+        if (getOptional(MAX_KEYS, Integer.class).orElse(DEFAULT_MAX_KEYS) < 1) {
+            throw new FaultToleranceDefinitionException("Invalid CircuitBreaker on " + getTargetDescription() + " : maxKeys shouldn't be lower than 1");
         }
         if (!getConfig().getOptionalValue(HystrixCommandInterceptor.SYNC_CIRCUIT_BREAKER_KEY, Boolean.class).orElse(true) && successThreshold > 1) {
-            LOGGER.warnf("Synchronous circuit breaker disabled - successThreshold of value greater than 1 is not supported: " + annotated);
+            LOGGER.warnf("Synchronous circuit breaker disabled - successThreshold of value greater than 1 is not supported: %s", getTargetDescription());
         }
     }
 
@@ -83,6 +179,66 @@ public class CircuitBreakerConfig extends GenericConfig<CircuitBreaker> {
         return "CircuitBreaker";
     }
 
+    public long getDelay() {
+        return delay;
+    }
+
+    public ChronoUnit getDelayUnit() {
+        return delayUnit;
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    public double getFailureRatio() {
+        return failureRatio;
+    }
+
+    public int getRequestVolumeThreshold() {
+        return requestVolumeThreshold;
+    }
+
+    public int getSuccessThreshold() {
+        return successThreshold;
+    }
+
+    public boolean isTimeWindow() {
+        return timeWindow;
+    }
+
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    /**
+     *
+     * @return the execution time from which a call is slow in nanoseconds, {@code 0} if disabled
+     */
+    public long getSlowCallDurationNanos() {
+        return slowCallDurationNanos;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public int getKeyParameter() {
+        return keyParameter;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    /**
+     *
+     * @return the name of the shared circuit breaker or {@code null}
+     */
+    public String getName() {
+        return name;
+    }
+
     @Override
     protected Map<String, Class<?>> getKeysToType() {
         return keys2Type;
@@ -90,6 +246,32 @@ public class CircuitBreakerConfig extends GenericConfig<CircuitBreaker> {
 
     private static Map<String, Class<?>> keys2Type = initKeys();
 
+    private final long delay;
+
+    private final ChronoUnit delayUnit;
+
+    private final long delayMillis;
+
+    private final double failureRatio;
+
+    private final int requestVolumeThreshold;
+
+    private final int successThreshold;
+
+    private final boolean timeWindow;
+
+    private final int windowSeconds;
+
+    private final long slowCallDurationNanos;
+
+    private final double slowCallRateThreshold;
+
+    private final int keyParameter;
+
+    private final int maxKeys;
+
+    private final String name;
+
     private static Map<String, Class<?>> initKeys() {
         Map<String, Class<?>> keys = new HashMap<>();
         keys.put(DELAY, Long.class);
@@ -20,6 +20,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.inject.spi.Annotated;
 import javax.enterprise.inject.spi.AnnotatedMethod;
@@ -35,53 +37,90 @@ import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefiniti
 public abstract class GenericConfig<X extends Annotation> {
 
     public GenericConfig(X annotation, Method method) {
-        this.method = method;
-        this.annotation = annotation;
-        annotated =null;
+        this(annotation, method, null);
     }
 
     public GenericConfig(X annotation, Annotated annotated) {
-        if(annotated instanceof AnnotatedMethod) {
-            method = ((AnnotatedMethod<?>)annotated).getJavaMember();
-        } else {
-            method = ((AnnotatedType<?>)annotated).getJavaClass().getMethods()[0];
-        }
-        this.annotation =annotation;
+        this(annotation, getMethod(annotated), annotated);
+    }
+
+    /**
+     *
+     * @param annotation
+     * @param method
+     * @param annotated the annotated type or method, or {@code null}
+     */
+    protected GenericConfig(X annotation, Method method, Annotated annotated) {
+        this.method = method;
+        this.annotation = annotation;
         this.annotated = annotated;
     }
 
+    /**
+     * The value is resolved on first access only, subsequent reads are served from the resolved snapshot of this config. The snapshot holds a value
+     * per key and expected type, a key read with another type is resolved again.
+     *
+     * @param key
+     * @param expectedType
+     * @return the resolved value
+     */
+    @SuppressWarnings("unchecked")
     public <U> U get(String key, Class<U> expectedType) {
+        ConcurrentMap<String, Object> values = resolved.get(expectedType);
+        if (values == null) {
+            values = new ConcurrentHashMap<>();
+            ConcurrentMap<String, Object> previous = resolved.putIfAbsent(expectedType, values);
+            if (previous != null) {
+                values = previous;
+            }
+        }
+        Object value = values.get(key);
+        if (value == null) {
+            value = resolve(key, expectedType);
+            Object previous = values.putIfAbsent(key, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        return (U) value;
+    }
+
+    private <U> U resolve(String key, Class<U> expectedType) {
+        Optional<U> opt = getOptional(key, expectedType);
+        if (opt.isPresent()) {
+            return opt.get();
+        }
+        return getConfigFromAnnotation(key);
+    }
+
+    /**
+     * Looks up the config properties only, this can be used for keys which are not members of the annotation.
+     *
+     * @param key
+     * @param expectedType
+     * @return the configured value
+     */
+    protected <U> Optional<U> getOptional(String key, Class<U> expectedType) {
 
         /*
            Global config has the highest priority
          */
         Optional<U> opt = getConfig().getOptionalValue(getConfigType() + "/" + key, expectedType);
         if (opt.isPresent()) {
-            return opt.get();
+            return opt;
         }
 
         /*
             Config on field or on field annotation is priority 2
          */
         if (method.isAnnotationPresent(annotation.annotationType())) {
-            opt = getConfig().getOptionalValue(getConfigKeyForMethod() + key, expectedType);
-            if (opt.isPresent()) {
-                return opt.get();
-            } else {
-                return getConfigFromAnnotation(key);
-            }
+            return getConfig().getOptionalValue(getConfigKeyForMethod() + key, expectedType);
         }
 
         /*
             lowest priority for config on class
          */
-        opt = getConfig().getOptionalValue(getConfigKeyForClass() + key, expectedType);
-        if (opt.isPresent()) {
-            return opt.get();
-        } else {
-            return getConfigFromAnnotation(key);
-        }
-
+        return getConfig().getOptionalValue(getConfigKeyForClass() + key, expectedType);
     }
 
     public <U> U get(String key) {
@@ -100,6 +139,21 @@ public abstract class GenericConfig<X extends Annotation> {
         }
     }
 
+    /**
+     *
+     * @return the annotated type or method, or the method if this config is not built from an {@link Annotated}
+     */
+    protected String getTargetDescription() {
+        return annotated != null ? annotated.toString() : method.toGenericString();
+    }
+
+    protected static Method getMethod(Annotated annotated) {
+        if (annotated instanceof AnnotatedMethod) {
+            return ((AnnotatedMethod<?>) annotated).getJavaMember();
+        }
+        return ((AnnotatedType<?>) annotated).getJavaClass().getMethods()[0];
+    }
+
     protected String getConfigKeyForMethod() {
         return method.getDeclaringClass().getName() + "/" + method.getName() + "/" + getConfigType() + "/";
     }
@@ -122,4 +176,6 @@ public abstract class GenericConfig<X extends Annotation> {
 
     protected final Annotated annotated;
 
+    private final ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> resolved = new ConcurrentHashMap<>();
+
 }
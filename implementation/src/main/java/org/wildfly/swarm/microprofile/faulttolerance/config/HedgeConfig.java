@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.config;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceDefinitionException;
+
+/**
+ * The hedging config of an {@link org.eclipse.microprofile.faulttolerance.Asynchronous} method.
+ * <p>
+ * There is no annotation for hedging, the config properties use the same keys as the MP FT annotations with the {@value #CONFIG_TYPE} config type, e.g.
+ * {@code com.acme.Service/call/Hedge/maxHedges}. As for the annotations, the global config has the highest priority, then the config on method and
+ * finally the config on class.
+ * </p>
+ */
+public class HedgeConfig {
+
+    public static final String CONFIG_TYPE = "Hedge";
+
+    /**
+     * The max number of hedged attempts started in addition to the first one, {@code 0} (default) disables hedging.
+     */
+    public static final String MAX_HEDGES = "maxHedges";
+
+    /**
+     * The fixed delay before starting a hedged attempt, also used if the latency percentile is not known yet.
+     */
+    public static final String DELAY = "delay";
+
+    public static final String DELAY_UNIT = "delayUnit";
+
+    /**
+     * If set, the delay before starting a hedged attempt is this percentile of the execution time of the method, e.g. {@code 95}.
+     */
+    public static final String PERCENTILE = "percentile";
+
+    public HedgeConfig(Method method) {
+        this.method = method;
+        maxHedges = get(MAX_HEDGES, Integer.class).orElse(0);
+        delay = Duration.of(get(DELAY, Long.class).orElse(0L), get(DELAY_UNIT, ChronoUnit.class).orElse(ChronoUnit.MILLIS)).toMillis();
+        percentile = get(PERCENTILE, Double.class).orElse(0.0);
+        validate();
+    }
+
+    public boolean isEnabled() {
+        return maxHedges > 0;
+    }
+
+    public int getMaxHedges() {
+        return maxHedges;
+    }
+
+    /**
+     *
+     * @return the delay in milliseconds
+     */
+    public long getDelay() {
+        return delay;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    private void validate() {
+        if (maxHedges < 0) {
+            throw new FaultToleranceDefinitionException("Invalid Hedge on " + method + " : maxHedges shouldn't be lower than 0");
+        }
+        if (delay < 0) {
+            throw new FaultToleranceDefinitionException("Invalid Hedge on " + method + " : delay shouldn't be lower than 0");
+        }
+        if (percentile < 0 || percentile > 100) {
+            throw new FaultToleranceDefinitionException("Invalid Hedge on " + method + " : percentile should be between 0 and 100");
+        }
+    }
+
+    private <U> Optional<U> get(String key, Class<U> expectedType) {
+        Config config = ConfigProvider.getConfig();
+        Optional<U> opt = config.getOptionalValue(CONFIG_TYPE + "/" + key, expectedType);
+        if (!opt.isPresent()) {
+            opt = config.getOptionalValue(method.getDeclaringClass().getName() + "/" + method.getName() + "/" + CONFIG_TYPE + "/" + key, expectedType);
+        }
+        if (!opt.isPresent()) {
+            opt = config.getOptionalValue(method.getDeclaringClass().getName() + "/" + CONFIG_TYPE + "/" + key, expectedType);
+        }
+        return opt;
+    }
+
+    private final Method method;
+
+    private final int maxHedges;
+
+    private final long delay;
+
+    private final double percentile;
+
+}
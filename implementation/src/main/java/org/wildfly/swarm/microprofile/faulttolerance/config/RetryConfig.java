@@ -50,36 +50,90 @@ public class RetryConfig extends GenericConfig<Retry> {
 
     public static final String ABORT_ON = "abortOn";
 
+    /**
+     * Not an annotation member - the name of the back-off strategy, or the class name of a custom one.
+     */
+    public static final String BACK_OFF = "backOff";
+
+    /**
+     * Not an annotation member - the upper bound of the delay, expressed in {@link #DELAY_UNIT}.
+     */
+    public static final String MAX_DELAY = "maxDelay";
+
+    /**
+     * Not an annotation member - the growth factor of the exponential back-off strategy.
+     */
+    public static final String MULTIPLIER = "multiplier";
+
+    /**
+     * Not an annotation member - the number of retries allowed per successful first attempt, {@code 0} (default) disables the retry budget.
+     */
+    public static final String BUDGET_RATIO = "budgetRatio";
+
+    /**
+     * Not an annotation member - the max number of retries the budget can accumulate.
+     */
+    public static final String BUDGET_CAPACITY = "budgetCapacity";
+
+    public static final String DEFAULT_BACK_OFF = "CONSTANT";
+
+    public static final int DEFAULT_BUDGET_CAPACITY = 10;
+
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+
     public RetryConfig(Retry annotation, Method method) {
-        super(annotation, method);
-        maxExecNumber = (int) get(MAX_RETRIES) + 1;
-        maxDuration = Duration.of(get(MAX_DURATION), get(DURATION_UNIT)).toNanos();
-        delay = Duration.of(get(DELAY), get(DELAY_UNIT)).toMillis();
+        this(annotation, method, null);
     }
 
     public RetryConfig(Annotated annotated) {
-        super(annotated.getAnnotation(Retry.class), annotated);
+        this(annotated.getAnnotation(Retry.class), getMethod(annotated), annotated);
+    }
+
+    private RetryConfig(Retry annotation, Method method, Annotated annotated) {
+        super(annotation, method, annotated);
         maxExecNumber = (int) get(MAX_RETRIES) + 1;
         maxDuration = Duration.of(get(MAX_DURATION), get(DURATION_UNIT)).toNanos();
         delay = Duration.of(get(DELAY), get(DELAY_UNIT)).toMillis();
+        jitter = get(JITTER);
+        jitterDelayUnit = get(JITTER_DELAY_UNIT);
+        retryOn = get(RETRY_ON);
+        abortOn = get(ABORT_ON);
+        backOff = getOptional(BACK_OFF, String.class).orElse(DEFAULT_BACK_OFF);
+        maxDelay = getOptional(MAX_DELAY, Long.class).map(value -> Duration.of(value, get(DELAY_UNIT)).toMillis())
+                .orElse(Duration.ofNanos(maxDuration).toMillis());
+        multiplier = getOptional(MULTIPLIER, Double.class).orElse(DEFAULT_MULTIPLIER);
+        budgetRatio = getOptional(BUDGET_RATIO, Double.class).orElse(0.0);
+        budgetCapacity = getOptional(BUDGET_CAPACITY, Integer.class).orElse(DEFAULT_BUDGET_CAPACITY);
     }
 
     @Override
     public void validate() {
         if (get(MAX_RETRIES, Integer.class) < -1) {
-            throw new FaultToleranceDefinitionException("Invalid Retry on " + annotated.toString() + " : maxRetries shouldn't be lower than -1");
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : maxRetries shouldn't be lower than -1");
         }
         if (get(DELAY, Long.class) < 0) {
-            throw new FaultToleranceDefinitionException("Invalid Retry on " + annotated.toString() + " : delay shouldn't be lower than 0");
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : delay shouldn't be lower than 0");
         }
         if (get(MAX_DURATION, Long.class) < 0) {
-            throw new FaultToleranceDefinitionException("Invalid Retry on " + annotated.toString() + " : maxDuration shouldn't be lower than 0");
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : maxDuration shouldn't be lower than 0");
         }
         if (get(MAX_DURATION, Long.class) <= get(DELAY, Long.class)) {
-            throw new FaultToleranceDefinitionException("Invalid Retry on " + annotated.toString() + " : maxDuration should be greater than delay");
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : maxDuration should be greater than delay");
         }
         if (get(JITTER, Long.class) < 0) {
-            throw new FaultToleranceDefinitionException("Invalid Retry on " + annotated.toString() + " : jitter shouldn't be lower than 0");
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : jitter shouldn't be lower than 0");
+        }
+        if (getOptional(MAX_DELAY, Long.class).orElse(0L) < 0) {
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : maxDelay shouldn't be lower than 0");
+        }
+        if (getOptional(MULTIPLIER, Double.class).orElse(DEFAULT_MULTIPLIER) < 1) {
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : multiplier shouldn't be lower than 1");
+        }
+        if (getOptional(BUDGET_RATIO, Double.class).orElse(0.0) < 0) {
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : budgetRatio shouldn't be lower than 0");
+        }
+        if (getOptional(BUDGET_CAPACITY, Integer.class).orElse(DEFAULT_BUDGET_CAPACITY) < 1) {
+            throw new FaultToleranceDefinitionException("Invalid Retry on " + getTargetDescription() + " : budgetCapacity shouldn't be lower than 1");
         }
     }
 
@@ -101,19 +155,51 @@ public class RetryConfig extends GenericConfig<Retry> {
     }
 
     public Class<?>[] getAbortOn() {
-        return get(ABORT_ON);
+        return abortOn;
     }
 
     public Class<?>[] getRetryOn() {
-        return get(RETRY_ON);
+        return retryOn;
     }
 
-    public Long getJitter() {
-        return get(JITTER);
+    public long getJitter() {
+        return jitter;
     }
 
     public ChronoUnit getJitterDelayUnit() {
-        return get(JITTER_DELAY_UNIT);
+        return jitterDelayUnit;
+    }
+
+    /**
+     *
+     * @return the jitter in milliseconds
+     */
+    public long getJitterMillis() {
+        return Duration.of(jitter, jitterDelayUnit).toMillis();
+    }
+
+    public String getBackOff() {
+        return backOff;
+    }
+
+    /**
+     *
+     * @return the max delay in milliseconds
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public int getBudgetCapacity() {
+        return budgetCapacity;
     }
 
     @Override
@@ -129,6 +215,24 @@ public class RetryConfig extends GenericConfig<Retry> {
 
     private final int maxExecNumber;
 
+    private final long jitter;
+
+    private final ChronoUnit jitterDelayUnit;
+
+    private final Class<?>[] retryOn;
+
+    private final Class<?>[] abortOn;
+
+    private final String backOff;
+
+    private final long maxDelay;
+
+    private final double multiplier;
+
+    private final double budgetRatio;
+
+    private final int budgetCapacity;
+
     private static Map<String, Class<?>> initKeys() {
         Map<String, Class<?>> keys = new HashMap<>();
         keys.put(MAX_RETRIES, Integer.class);
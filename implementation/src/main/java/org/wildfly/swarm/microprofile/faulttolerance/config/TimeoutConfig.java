@@ -46,7 +46,7 @@ public class TimeoutConfig extends GenericConfig<Timeout> {
     @Override
     public void validate() {
         if (get(VALUE, Long.class) < 0) {
-            throw new FaultToleranceDefinitionException("Invalid Timeout on " + annotated.toString() + " : value shouldn't be lower than 0");
+            throw new FaultToleranceDefinitionException("Invalid Timeout on " + getTargetDescription() + " : value shouldn't be lower than 0");
         }
     }
 
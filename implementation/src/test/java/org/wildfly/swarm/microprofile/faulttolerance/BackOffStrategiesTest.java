@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
+
+public class BackOffStrategiesTest {
+
+    @Test
+    public void testExponentialBoundedByMaxDelay() throws Exception {
+        RetryConfig config = newConfig("exponential");
+        // The max delay defaults to the max duration
+        assertEquals(config.getMaxDelay(), 5000L);
+        for (int retry = 1; retry <= 20; retry++) {
+            long delay = BackOffStrategies.EXPONENTIAL.nextDelay(retry, 0, config);
+            assertTrue(delay >= 0 && delay <= config.getMaxDelay(), "Delay of retry " + retry + " out of bounds: " + delay);
+        }
+        assertEquals(BackOffStrategies.EXPONENTIAL.nextDelay(20, 0, config), 5000L);
+    }
+
+    @Test
+    public void testDelayBoundedByMaxDuration() throws Exception {
+        String key = Retries.class.getName() + "/exponential/Retry/" + RetryConfig.MAX_DELAY;
+        System.setProperty(key, "60000");
+        try {
+            RetryConfig config = newConfig("exponential");
+            assertEquals(BackOffStrategies.EXPONENTIAL.nextDelay(20, 0, config), 60000L);
+            RetryContext retryContext = new RetryContext(config, null, BackOffStrategies.EXPONENTIAL, null);
+            for (int retry = 1; retry <= 20; retry++) {
+                long delay = retryContext.nextDelay();
+                assertTrue(delay >= 0 && delay <= 5000, "Delay of retry " + retry + " beyond the max duration: " + delay);
+            }
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    private static RetryConfig newConfig(String methodName) throws NoSuchMethodException {
+        Method method = Retries.class.getDeclaredMethod(methodName);
+        return new RetryConfig(method.getAnnotation(Retry.class), method);
+    }
+
+    static class Retries {
+
+        @Retry(maxRetries = 20, delay = 1000, maxDuration = 5000, jitter = 0)
+        void exponential() {
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.SynchronousCircuitBreaker.Status;
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+public class CircuitBreakerStateFileTest {
+
+    @Test
+    public void testStateRestored() throws Exception {
+        Path path = Files.createTempFile("circuit-breakers", ".state");
+        try {
+            CircuitBreakerConfig config = newConfig();
+            SynchronousCircuitBreaker open = new SynchronousCircuitBreaker(config, CircuitBreakerStateFile.open(path).getSlot("open"));
+            for (int i = 0; i < 4; i++) {
+                open.incFailureCount(0);
+            }
+            assertEquals(open.getStatus(), Status.OPEN);
+            SynchronousCircuitBreaker closed = new SynchronousCircuitBreaker(config, CircuitBreakerStateFile.open(path).getSlot("closed"));
+            closed.incFailureCount(0);
+
+            // Restart
+            CircuitBreakerStateFile stateFile = CircuitBreakerStateFile.open(path);
+            SynchronousCircuitBreaker restored = new SynchronousCircuitBreaker(config, stateFile.getSlot("open"));
+            assertNotSame(restored, open);
+            assertEquals(restored.getStatus(), Status.OPEN);
+            assertFalse(restored.allowRequest());
+            assertEquals(new SynchronousCircuitBreaker(config, stateFile.getSlot("closed")).getStatus(), Status.CLOSED);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testInvalidFile() throws Exception {
+        Path path = Files.createTempFile("circuit-breakers", ".state");
+        try {
+            Files.write(path, new byte[] { 1, 2, 3, 4 });
+            CircuitBreakerStateFile.open(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSlotsPerName() throws Exception {
+        Path path = Files.createTempFile("circuit-breakers", ".state");
+        try {
+            CircuitBreakerStateFile stateFile = CircuitBreakerStateFile.open(path);
+            stateFile.getSlot("a").store(Status.OPEN, Long.MAX_VALUE >>> 2);
+            assertEquals(CircuitBreakerStateFile.status(stateFile.getSlot("a").load()), Status.OPEN);
+            assertEquals(CircuitBreakerStateFile.status(stateFile.getSlot("b").load()), Status.CLOSED);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testUnknownStatusIsClosed() {
+        assertEquals(CircuitBreakerStateFile.status(-1L), Status.CLOSED);
+        assertEquals(CircuitBreakerStateFile.status((long) Status.OPEN.ordinal() << 62), Status.OPEN);
+    }
+
+    @Test
+    public void testSharedBetweenProcesses() throws Exception {
+        Path path = Files.createTempFile("circuit-breakers", ".state");
+        try {
+            CircuitBreakerConfig config = newConfig();
+            // Each process maps the file on its own
+            SynchronousCircuitBreaker first = new SynchronousCircuitBreaker(config, CircuitBreakerStateFile.open(path, true).getSlot("shared"));
+            SynchronousCircuitBreaker second = new SynchronousCircuitBreaker(config, CircuitBreakerStateFile.open(path, true).getSlot("shared"));
+            SynchronousCircuitBreaker notShared = new SynchronousCircuitBreaker(config, CircuitBreakerStateFile.open(path).getSlot("shared"));
+            assertTrue(second.allowRequest());
+            for (int i = 0; i < 4; i++) {
+                first.incFailureCount(0);
+            }
+            assertEquals(first.getStatus(), Status.OPEN);
+            // No failure recorded by the second process
+            assertFalse(second.allowRequest());
+            assertEquals(second.getStatus(), Status.OPEN);
+            assertTrue(notShared.allowRequest());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static CircuitBreakerConfig newConfig() throws NoSuchMethodException {
+        Method method = CircuitBreakerStateFileTest.class.getDeclaredMethod("circuit");
+        return new CircuitBreakerConfig(method.getAnnotation(CircuitBreaker.class), method);
+    }
+
+    @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.5, delay = 60000)
+    void circuit() {
+    }
+
+}
@@ -34,6 +34,7 @@ import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
@@ -59,6 +60,14 @@ public class CommandInterceptorTest extends Arquillian {
     MyMicroservice service;
     @Inject
     MyRetryMicroservice serviceRetry;
+    @Inject
+    HystrixExtension extension;
+
+    @Test
+    public void testCircuitBreakerInitializedOnDeployment() throws NoSuchMethodException {
+        String commandKey = WarmUpMicroservice.class.getMethod("ping").toGenericString();
+        assertNotNull(extension.getCircuitBreakerRegistry().get(commandKey));
+    }
 
     @Test
     public void shouldRunWithLongExecutionTime() {
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.ExecutionContext;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.FallbackHandler;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+
+public class FallbackHandlerDisposalTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String config = SingletonHandler.class.getName() + "/Fallback/lifecycle=SINGLETON\n"
+                + PooledHandler.class.getName() + "/Fallback/lifecycle=POOLED";
+        return ShrinkWrap.create(JavaArchive.class).addClasses(FallbackHandlerDisposalTest.class, HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(config), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    DisposalService service;
+
+    @Inject
+    HystrixExtension extension;
+
+    @Test
+    public void testHandlersDestroyedOnShutdown() {
+        int singletons = SingletonHandler.DESTROYED.get();
+        int pooled = PooledHandler.DESTROYED.get();
+        assertEquals(service.singleton(), "fallback");
+        assertEquals(service.pooled(), "fallback");
+        assertEquals(SingletonHandler.DESTROYED.get(), singletons);
+        assertEquals(PooledHandler.DESTROYED.get(), pooled);
+        // Shutting down again when the deployment is undeployed is a no-op
+        extension.shutdown(null);
+        assertEquals(SingletonHandler.DESTROYED.get(), singletons + 1);
+        assertEquals(PooledHandler.DESTROYED.get(), pooled + 1);
+    }
+
+    @ApplicationScoped
+    public static class DisposalService {
+
+        @Fallback(SingletonHandler.class)
+        public String singleton() {
+            throw new IllegalStateException("Service call failed!");
+        }
+
+        @Fallback(PooledHandler.class)
+        public String pooled() {
+            throw new IllegalStateException("Service call failed!");
+        }
+
+    }
+
+    public static class SingletonHandler implements FallbackHandler<String> {
+
+        static final AtomicInteger DESTROYED = new AtomicInteger(0);
+
+        @Override
+        public String handle(ExecutionContext executionContext) {
+            return "fallback";
+        }
+
+        @PreDestroy
+        void dispose() {
+            DESTROYED.incrementAndGet();
+        }
+
+    }
+
+    public static class PooledHandler implements FallbackHandler<String> {
+
+        static final AtomicInteger DESTROYED = new AtomicInteger(0);
+
+        @Override
+        public String handle(ExecutionContext executionContext) {
+            return "fallback";
+        }
+
+        @PreDestroy
+        void dispose() {
+            DESTROYED.incrementAndGet();
+        }
+
+    }
+
+}
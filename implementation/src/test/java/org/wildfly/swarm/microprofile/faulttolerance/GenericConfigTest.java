@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
+
+public class GenericConfigTest {
+
+    @Test
+    public void testResolvedPerType() throws Exception {
+        String key = GenericConfigTest.class.getName() + "/retried/Retry/" + RetryConfig.MAX_DELAY;
+        System.setProperty(key, "100");
+        try {
+            Method method = GenericConfigTest.class.getDeclaredMethod("retried");
+            RetryConfig config = new RetryConfig(method.getAnnotation(Retry.class), method);
+            assertEquals(config.get(RetryConfig.MAX_DELAY, Long.class), Long.valueOf(100));
+            assertEquals(config.get(RetryConfig.MAX_DELAY, String.class), "100");
+            assertEquals(config.get(RetryConfig.MAX_DELAY, Integer.class), Integer.valueOf(100));
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Retry
+    void retried() {
+    }
+
+}
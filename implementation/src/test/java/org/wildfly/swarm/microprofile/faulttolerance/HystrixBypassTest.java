@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandMetrics;
+
+public class HystrixBypassTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return ShrinkWrap.create(JavaArchive.class).addClasses(HystrixBypassTest.class, HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(HystrixCommandInterceptor.HYSTRIX_BYPASS_KEY + "=true"), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    BypassService service;
+
+    @Test
+    public void testRetryWithoutCommand() throws NoSuchMethodException {
+        service.getCounter().set(0);
+        assertEquals(service.retried(), "pong");
+        assertEquals(service.getCounter().get(), 3);
+        // Invoked in the caller thread
+        assertSame(service.getThread(), Thread.currentThread());
+        assertNull(HystrixCommandMetrics.getInstance(getCommandKey("retried")));
+    }
+
+    @Test
+    public void testFallbackWithoutCommand() throws NoSuchMethodException {
+        service.getCounter().set(0);
+        assertEquals(service.fallen(), "fallback");
+        // The fallback applies once no more retry is possible
+        assertEquals(service.getCounter().get(), 2);
+        assertSame(service.getThread(), Thread.currentThread());
+        assertNull(HystrixCommandMetrics.getInstance(getCommandKey("fallen")));
+    }
+
+    private static HystrixCommandKey getCommandKey(String methodName) throws NoSuchMethodException {
+        return HystrixCommandKey.Factory.asKey(BypassService.class.getMethod(methodName).toGenericString());
+    }
+
+    @ApplicationScoped
+    public static class BypassService {
+
+        @Retry(maxRetries = 3, delay = 0, jitter = 0)
+        public String retried() {
+            thread = Thread.currentThread();
+            if (counter.incrementAndGet() < 3) {
+                throw new IllegalStateException("Service call failed!");
+            }
+            return "pong";
+        }
+
+        @Retry(maxRetries = 1, delay = 0, jitter = 0)
+        @Fallback(fallbackMethod = "fallback")
+        public String fallen() {
+            thread = Thread.currentThread();
+            counter.incrementAndGet();
+            throw new IllegalStateException("Service call failed!");
+        }
+
+        public String fallback() {
+            return "fallback";
+        }
+
+        AtomicInteger getCounter() {
+            return counter;
+        }
+
+        Thread getThread() {
+            return thread;
+        }
+
+        private final AtomicInteger counter = new AtomicInteger(0);
+
+        private volatile Thread thread;
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+public class KeyedCircuitBreakersTest {
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        String key = KeyedCircuitBreakersTest.class.getName() + "/circuit/CircuitBreaker/" + CircuitBreakerConfig.MAX_KEYS;
+        System.setProperty(key, "100");
+        try {
+            Method method = KeyedCircuitBreakersTest.class.getDeclaredMethod("circuit", String.class);
+            // Every access is recorded
+            KeyedCircuitBreakers circuitBreakers = new KeyedCircuitBreakers(new CircuitBreakerConfig(method.getAnnotation(CircuitBreaker.class), method), 0);
+            SynchronousCircuitBreaker hot = circuitBreakers.get("hot");
+            assertSame(circuitBreakers.get("hot"), hot);
+            SynchronousCircuitBreaker cold = circuitBreakers.get("cold");
+            for (int i = 0; i < 10_000; i++) {
+                circuitBreakers.get(i);
+                if (i % 10 == 0) {
+                    circuitBreakers.get("hot");
+                }
+                assertTrue(circuitBreakers.size() <= 100);
+            }
+            assertSame(circuitBreakers.get("hot"), hot);
+            assertNotSame(circuitBreakers.get("cold"), cold);
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test
+    public void testAccessWithinResolutionNotRecorded() throws Exception {
+        String key = KeyedCircuitBreakersTest.class.getName() + "/circuit/CircuitBreaker/" + CircuitBreakerConfig.MAX_KEYS;
+        System.setProperty(key, "100");
+        try {
+            Method method = KeyedCircuitBreakersTest.class.getDeclaredMethod("circuit", String.class);
+            KeyedCircuitBreakers circuitBreakers = new KeyedCircuitBreakers(new CircuitBreakerConfig(method.getAnnotation(CircuitBreaker.class), method),
+                    TimeUnit.HOURS.toNanos(1));
+            SynchronousCircuitBreaker first = circuitBreakers.get("first");
+            for (int i = 0; i < 100; i++) {
+                circuitBreakers.get(i);
+                circuitBreakers.get("first");
+            }
+            // Still the least recently used one
+            assertEquals(circuitBreakers.size(), 91);
+            assertNotSame(circuitBreakers.get("first"), first);
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test
+    public void testSelect() {
+        long[] values = { 5, 3, 9, 1, 7, 3, 8, 2, 6, 4 };
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int k = 0; k < values.length; k++) {
+            assertEquals(KeyedCircuitBreakers.select(values.clone(), values.length, k), sorted[k]);
+        }
+    }
+
+    @CircuitBreaker
+    void circuit(String key) {
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.SynchronousCircuitBreaker.Status;
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+public class SynchronousCircuitBreakerTest {
+
+    @Test
+    public void testTransitions() throws Exception {
+        SynchronousCircuitBreaker breaker = newBreaker("immediateHalfOpen");
+        breaker.incSuccessCount(0);
+        breaker.incFailureCount(0);
+        breaker.incSuccessCount(0);
+        assertEquals(breaker.getStatus(), Status.CLOSED);
+        breaker.incFailureCount(0);
+        assertEquals(breaker.getStatus(), Status.OPEN);
+        // No delay - the next request is a trial
+        assertTrue(breaker.allowRequest());
+        assertEquals(breaker.getStatus(), Status.HALF_OPEN);
+        breaker.incSuccessCount(0);
+        assertTrue(breaker.allowRequest());
+        breaker.incSuccessCount(0);
+        assertEquals(breaker.getStatus(), Status.CLOSED);
+    }
+
+    @Test
+    public void testFailedTrialReopens() throws Exception {
+        SynchronousCircuitBreaker breaker = newBreaker("immediateHalfOpen");
+        for (int i = 0; i < 4; i++) {
+            breaker.incFailureCount(0);
+        }
+        assertTrue(breaker.allowRequest());
+        breaker.incSuccessCount(0);
+        assertTrue(breaker.allowRequest());
+        breaker.incFailureCount(0);
+        assertEquals(breaker.getStatus(), Status.OPEN);
+    }
+
+    @Test
+    public void testTrialPermits() throws Exception {
+        SynchronousCircuitBreaker breaker = newBreaker("immediateHalfOpen");
+        for (int i = 0; i < 4; i++) {
+            breaker.incFailureCount(0);
+        }
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+        // Both trial executions are in flight
+        assertFalse(breaker.allowRequest());
+        breaker.release();
+        breaker.incSuccessCount(0);
+        // An outcome without a trial permit is ignored
+        breaker.incSuccessCount(0);
+        assertEquals(breaker.getStatus(), Status.HALF_OPEN);
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.incSuccessCount(0);
+        assertEquals(breaker.getStatus(), Status.CLOSED);
+    }
+
+    @Test
+    public void testRollingWindow() throws Exception {
+        SynchronousCircuitBreaker breaker = newBreaker("longDelay");
+        breaker.incFailureCount(0);
+        breaker.incFailureCount(0);
+        for (int i = 0; i < 100; i++) {
+            breaker.incSuccessCount(0);
+        }
+        // The first failures slid out of the window of the last 4 outcomes
+        breaker.incFailureCount(0);
+        assertEquals(breaker.getStatus(), Status.CLOSED);
+        breaker.incFailureCount(0);
+        assertEquals(breaker.getStatus(), Status.OPEN);
+    }
+
+    @Test
+    public void testTimeWindow() throws Exception {
+        String key = Circuits.class.getName() + "/timeWindow/CircuitBreaker/" + CircuitBreakerConfig.WINDOW;
+        System.setProperty(key, CircuitBreakerConfig.TIME_WINDOW);
+        try {
+            SynchronousCircuitBreaker breaker = newBreaker("timeWindow");
+            for (int i = 0; i < 100; i++) {
+                breaker.incSuccessCount(0);
+            }
+            // All the outcomes of the last seconds count, not only the last 4
+            breaker.incFailureCount(0);
+            breaker.incFailureCount(0);
+            assertEquals(breaker.getStatus(), Status.CLOSED);
+            record(breaker, 1, 100, false);
+            assertEquals(breaker.getStatus(), Status.OPEN);
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test
+    public void testSlowCalls() throws Exception {
+        String prefix = Circuits.class.getName() + "/slowCalls/CircuitBreaker/";
+        System.setProperty(prefix + CircuitBreakerConfig.SLOW_CALL_DURATION, "100");
+        System.setProperty(prefix + CircuitBreakerConfig.SLOW_CALL_RATE_THRESHOLD, "0.5");
+        try {
+            SynchronousCircuitBreaker breaker = newBreaker("slowCalls");
+            long slow = TimeUnit.MILLISECONDS.toNanos(150);
+            breaker.incSuccessCount(slow);
+            breaker.incSuccessCount(0);
+            breaker.incSuccessCount(0);
+            assertEquals(breaker.getStatus(), Status.CLOSED);
+            // No failure at all but half of the last 4 calls are slow
+            breaker.incSuccessCount(slow);
+            assertEquals(breaker.getStatus(), Status.OPEN);
+        } finally {
+            System.clearProperty(prefix + CircuitBreakerConfig.SLOW_CALL_DURATION);
+            System.clearProperty(prefix + CircuitBreakerConfig.SLOW_CALL_RATE_THRESHOLD);
+        }
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        SynchronousCircuitBreaker breaker = newBreaker("longDelay");
+        // Many more outcomes than the size of the window
+        record(breaker, 8, 300_000, true);
+        assertEquals(breaker.getStatus(), Status.CLOSED);
+        record(breaker, 8, 300_000, false);
+        assertEquals(breaker.getStatus(), Status.OPEN);
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void testConcurrentHalfOpenToClosed() throws Exception {
+        SynchronousCircuitBreaker breaker = newBreaker("immediateHalfOpen");
+        // The circuit keeps opening, closing after the trial executions and opening again
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 100_000; j++) {
+                        if (breaker.allowRequest()) {
+                            if ((j + thread) % 3 == 0) {
+                                breaker.incFailureCount(0);
+                            } else {
+                                breaker.incSuccessCount(0);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        while (breaker.getStatus() != Status.CLOSED) {
+            assertTrue(breaker.allowRequest());
+            breaker.incSuccessCount(0);
+        }
+        // The counts of the window did not drift
+        for (int i = 0; i < 4; i++) {
+            breaker.incSuccessCount(0);
+        }
+        breaker.incFailureCount(0);
+        assertEquals(breaker.getStatus(), Status.CLOSED);
+        breaker.incFailureCount(0);
+        assertEquals(breaker.getStatus(), Status.OPEN);
+    }
+
+    private static void record(SynchronousCircuitBreaker breaker, int threads, int outcomes, boolean success) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < outcomes; j++) {
+                        if (success) {
+                            breaker.incSuccessCount(0);
+                        } else {
+                            breaker.incFailureCount(0);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static SynchronousCircuitBreaker newBreaker(String methodName) throws NoSuchMethodException {
+        Method method = Circuits.class.getDeclaredMethod(methodName);
+        return new SynchronousCircuitBreaker(new CircuitBreakerConfig(method.getAnnotation(CircuitBreaker.class), method));
+    }
+
+    static class Circuits {
+
+        @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.5, delay = 0, successThreshold = 2)
+        void immediateHalfOpen() {
+        }
+
+        @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.5, delay = 60000)
+        void longDelay() {
+        }
+
+        @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.5, delay = 60000)
+        void timeWindow() {
+        }
+
+        @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.5, delay = 60000)
+        void slowCalls() {
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+public class TimeWindowTest {
+
+    @Test
+    public void testBucketsExpire() {
+        AtomicLong clock = new AtomicLong();
+        TimeWindow window = new TimeWindow(3, clock::get);
+        window.record(true, false);
+        window.record(false, false);
+        advance(clock, 1);
+        window.record(true, false);
+        assertEquals(window.getRequests(), 3);
+        assertEquals(window.getFailures(), 2);
+        advance(clock, 2);
+        // The first second is out of the window
+        window.record(false, false);
+        assertEquals(window.getRequests(), 2);
+        assertEquals(window.getFailures(), 1);
+        advance(clock, 10);
+        assertEquals(window.getRequests(), 0);
+        window.record(true, false);
+        assertEquals(window.getFailures(), 1);
+    }
+
+    private static void advance(AtomicLong clock, long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+}
@@ -13,29 +13,22 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.wildfly.swarm.microprofile.faulttolerance;
-
-abstract class State {
-
-    protected final SynchronousCircuitBreaker circuit;
-
-    State(SynchronousCircuitBreaker circuit) {
-        this.circuit = circuit;
-    }
 
-    abstract boolean allowsExecution(int execCount);
+package org.wildfly.swarm.microprofile.faulttolerance;
 
-    abstract SynchronousCircuitBreaker.Status getState();
+import javax.enterprise.context.ApplicationScoped;
 
-    void onFailure() {
-    }
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
 
-    void onSuccess() {
-    }
+/**
+ * Never invoked, its circuit breaker is initialized during deployment.
+ */
+@ApplicationScoped
+public class WarmUpMicroservice {
 
-    @Override
-    public String toString() {
-        return "State:" + getState();
+    @CircuitBreaker
+    public String ping() {
+        return "pong";
     }
 
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.backoff;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.Arrays;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class BackOffStrategyTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String config = BackOffService.class.getName() + "/ping/Retry/backOff=" + RecordingBackOff.class.getName() + "\n"
+                + BackOffService.class.getName() + "/ping/Retry/maxDelay=5";
+        return ShrinkWrap.create(JavaArchive.class).addPackage(BackOffStrategyTest.class.getPackage()).addClass(HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(config), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    BackOffService service;
+
+    @Test
+    public void testCustomStrategy() {
+        RecordingBackOff.DELAYS.clear();
+        try {
+            service.ping();
+            fail("Invocation should always fail!");
+        } catch (IllegalStateException expected) {
+            // Expected
+        }
+        assertEquals(service.getCounter().get(), 5);
+        // Fibonacci sequence of a 2 ms delay, bounded by the 5 ms max delay
+        assertEquals(RecordingBackOff.DELAYS, Arrays.asList(2L, 2L, 4L, 5L));
+    }
+
+}
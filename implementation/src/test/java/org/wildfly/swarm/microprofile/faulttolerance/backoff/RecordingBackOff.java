@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.backoff;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.wildfly.swarm.microprofile.faulttolerance.BackOffStrategies;
+import org.wildfly.swarm.microprofile.faulttolerance.BackOffStrategy;
+import org.wildfly.swarm.microprofile.faulttolerance.config.RetryConfig;
+
+public class RecordingBackOff implements BackOffStrategy {
+
+    static final List<Long> DELAYS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public long nextDelay(int retry, long previousDelay, RetryConfig config) {
+        long delay = BackOffStrategies.FIBONACCI.nextDelay(retry, previousDelay, config);
+        DELAYS.add(delay);
+        return delay;
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.breaker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+
+@ApplicationScoped
+public class AsyncBreakerService {
+
+    static final int REQUEST_THRESHOLD = 4;
+
+    @Asynchronous
+    @CircuitBreaker(requestVolumeThreshold = REQUEST_THRESHOLD, failureRatio = 1.0, delay = 60000)
+    public Future<String> failing() {
+        failingCounter.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    @Asynchronous
+    @CircuitBreaker(requestVolumeThreshold = REQUEST_THRESHOLD, failureRatio = 1.0, delay = 60000)
+    public Future<String> slow() throws InterruptedException {
+        slowCounter.incrementAndGet();
+        TimeUnit.MILLISECONDS.sleep(50);
+        return CompletableFuture.completedFuture("slow");
+    }
+
+    AtomicInteger getFailingCounter() {
+        return failingCounter;
+    }
+
+    AtomicInteger getSlowCounter() {
+        return slowCounter;
+    }
+
+    private final AtomicInteger failingCounter = new AtomicInteger(0);
+
+    private final AtomicInteger slowCounter = new AtomicInteger(0);
+
+}
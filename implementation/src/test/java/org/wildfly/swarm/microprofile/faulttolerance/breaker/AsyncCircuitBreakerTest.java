@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.breaker;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+import org.wildfly.swarm.microprofile.faulttolerance.config.CircuitBreakerConfig;
+
+public class AsyncCircuitBreakerTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String config = AsyncBreakerService.class.getName() + "/slow/CircuitBreaker/" + CircuitBreakerConfig.SLOW_CALL_DURATION + "=20";
+        return ShrinkWrap.create(JavaArchive.class).addClasses(AsyncBreakerService.class, HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(config), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    AsyncBreakerService service;
+
+    @Test
+    public void testFailuresRecordedOnCompletion() throws InterruptedException {
+        for (int i = 0; i < AsyncBreakerService.REQUEST_THRESHOLD; i++) {
+            assertFailure(service.failing(), IllegalStateException.class);
+        }
+        assertFailure(service.failing(), CircuitBreakerOpenException.class);
+        assertEquals(service.getFailingCounter().get(), AsyncBreakerService.REQUEST_THRESHOLD);
+    }
+
+    @Test
+    public void testSlowCallsRecordedOnCompletion() throws Exception {
+        for (int i = 0; i < AsyncBreakerService.REQUEST_THRESHOLD; i++) {
+            assertEquals(service.slow().get(), "slow");
+        }
+        assertFailure(service.slow(), CircuitBreakerOpenException.class);
+        assertEquals(service.getSlowCounter().get(), AsyncBreakerService.REQUEST_THRESHOLD);
+    }
+
+    private static void assertFailure(Future<String> future, Class<? extends Exception> expected) throws InterruptedException {
+        try {
+            future.get();
+            fail("Invocation should fail!");
+        } catch (ExecutionException e) {
+            assertTrue(expected.isInstance(e.getCause()), expected.getSimpleName() + " expected: " + e.getCause());
+        }
+    }
+
+}
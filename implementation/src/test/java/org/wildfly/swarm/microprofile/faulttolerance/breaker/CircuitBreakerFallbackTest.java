@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.breaker;
+
+import static org.testng.Assert.assertEquals;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class CircuitBreakerFallbackTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return ShrinkWrap.create(JavaArchive.class).addPackage(CircuitBreakerFallbackTest.class.getPackage()).addClass(HystrixCommandInterceptor.class)
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    FallbackBreakerService service;
+
+    @Test
+    public void testFailuresRecordedBeforeFallback() {
+        for (int i = 0; i < FallbackBreakerService.REQUEST_THRESHOLD; i++) {
+            assertEquals(service.ping(), "fallback");
+        }
+        assertEquals(service.getCounter().get(), FallbackBreakerService.REQUEST_THRESHOLD);
+        // The circuit is open - the fallback applies without invoking the method
+        assertEquals(service.ping(), "fallback");
+        assertEquals(service.getCounter().get(), FallbackBreakerService.REQUEST_THRESHOLD);
+    }
+
+}
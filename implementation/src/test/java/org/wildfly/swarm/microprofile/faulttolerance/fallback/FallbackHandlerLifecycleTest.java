@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.fallback;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class FallbackHandlerLifecycleTest extends Arquillian {
+
+    static final String POOL_SIZE_KEY = PooledFallbackHandler.class.getName() + "/Fallback/poolSize";
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String config = SingletonFallbackHandler.class.getName() + "/Fallback/lifecycle=SINGLETON\n"
+                + PooledFallbackHandler.class.getName() + "/Fallback/lifecycle=POOLED\n"
+                + POOL_SIZE_KEY + "=1\n"
+                + HystrixCommandInterceptor.CONFIG_REFRESH_INTERVAL_KEY + "=20";
+        return ShrinkWrap.create(JavaArchive.class).addPackage(FallbackHandlerLifecycleTest.class.getPackage()).addClass(HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(config), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    LifecycleService service;
+
+    @AfterClass
+    public void cleanup() {
+        System.clearProperty(POOL_SIZE_KEY);
+    }
+
+    @Test
+    public void testSingletonHandlerReused() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(service.singleton(), "fallback");
+        }
+        assertEquals(SingletonFallbackHandler.CREATED.get(), 1);
+        assertEquals(SingletonFallbackHandler.DESTROYED.get(), 0);
+    }
+
+    @Test
+    public void testPooledHandlerReused() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(service.pooled(), "fallback");
+        }
+        assertEquals(PooledFallbackHandler.CREATED.get(), 1);
+        assertEquals(PooledFallbackHandler.DESTROYED.get(), 0);
+    }
+
+    @Test(dependsOnMethods = { "testSingletonHandlerReused", "testPooledHandlerReused" })
+    public void testHandlersReusedAcrossConfigEpochs() throws InterruptedException {
+        // Any fault tolerance property change rebuilds the plans
+        System.setProperty(POOL_SIZE_KEY, "2");
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(service.singleton(), "fallback");
+        assertEquals(service.pooled(), "fallback");
+        assertEquals(SingletonFallbackHandler.CREATED.get(), 1);
+        assertEquals(PooledFallbackHandler.CREATED.get(), 1);
+        assertEquals(SingletonFallbackHandler.DESTROYED.get(), 0);
+        assertEquals(PooledFallbackHandler.DESTROYED.get(), 0);
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.hedge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+
+@ApplicationScoped
+public class HedgedService {
+
+    @Asynchronous
+    public Future<String> ping() throws InterruptedException {
+        if (counter.incrementAndGet() == 1) {
+            // Only the first attempt hits the slow replica
+            TimeUnit.SECONDS.sleep(2);
+            return CompletableFuture.completedFuture("slow");
+        }
+        return CompletableFuture.completedFuture("fast");
+    }
+
+    @Asynchronous
+    @Fallback(fallbackMethod = "fallback")
+    public Future<String> fail() {
+        counter.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    public Future<String> fallback() {
+        return CompletableFuture.completedFuture("fallback");
+    }
+
+    AtomicInteger getCounter() {
+        return counter;
+    }
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+}
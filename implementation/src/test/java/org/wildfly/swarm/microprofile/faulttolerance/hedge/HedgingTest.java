@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.hedge;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class HedgingTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String prefix = HedgedService.class.getName() + "/Hedge/";
+        return ShrinkWrap.create(JavaArchive.class).addPackage(HedgingTest.class.getPackage()).addClass(HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(prefix + "maxHedges=1\n" + prefix + "delay=50"), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    HedgedService service;
+
+    @Test
+    public void testFirstCompletedAttemptWins() throws InterruptedException, ExecutionException, TimeoutException {
+        service.getCounter().set(0);
+        // Would time out if the result of the slow attempt was awaited
+        assertEquals(service.ping().get(1, TimeUnit.SECONDS), "fast");
+        assertEquals(service.getCounter().get(), 2);
+    }
+
+    @Test
+    public void testFallbackOnceAllAttemptsFailed() throws InterruptedException, ExecutionException, TimeoutException {
+        service.getCounter().set(0);
+        assertEquals(service.fail().get(1, TimeUnit.SECONDS), "fallback");
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.keyed;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class KeyedCircuitBreakerTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String key = TenantService.class.getName() + "/fetchTenantData/CircuitBreaker/keyParameter";
+        return ShrinkWrap.create(JavaArchive.class).addClasses(TenantService.class, HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(key + "=0"), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    TenantService service;
+
+    @Test
+    public void testFailingTenantIsolated() {
+        service.setFailing("bad");
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.fetchTenantData("bad");
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+        }
+        try {
+            service.fetchTenantData("bad");
+            fail();
+        } catch (CircuitBreakerOpenException expected) {
+        }
+        // The other tenants have their own circuit
+        assertEquals(service.fetchTenantData("good"), "good");
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.keyed;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+
+@ApplicationScoped
+public class TenantService {
+
+    @CircuitBreaker(requestVolumeThreshold = 2, failureRatio = 1.0, delay = 60000)
+    public String fetchTenantData(String tenantId) {
+        if (failingTenants.contains(tenantId)) {
+            throw new IllegalStateException("Tenant " + tenantId + " is down");
+        }
+        return tenantId;
+    }
+
+    void setFailing(String tenantId) {
+        failingTenants.add(tenantId);
+    }
+
+    private final Set<String> failingTenants = ConcurrentHashMap.newKeySet();
+
+}
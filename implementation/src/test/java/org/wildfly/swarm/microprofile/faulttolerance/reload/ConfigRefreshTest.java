@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.reload;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class ConfigRefreshTest extends Arquillian {
+
+    static final String MAX_RETRIES_KEY = ReloadableService.class.getName() + "/ping/Retry/maxRetries";
+
+    static final String INVALID_MAX_RETRIES_KEY = ReloadableService.class.getName() + "/pong/Retry/maxRetries";
+
+    static final String TIMEOUT_KEY = ReloadableService.class.getName() + "/sleep/Timeout/value";
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return ShrinkWrap.create(JavaArchive.class).addPackage(ConfigRefreshTest.class.getPackage()).addClass(HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(HystrixCommandInterceptor.CONFIG_REFRESH_INTERVAL_KEY + "=20"), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    ReloadableService service;
+
+    @AfterClass
+    public void cleanup() {
+        System.clearProperty(MAX_RETRIES_KEY);
+        System.clearProperty(INVALID_MAX_RETRIES_KEY);
+        System.clearProperty(TIMEOUT_KEY);
+    }
+
+    @Test
+    public void testMaxRetriesRefreshed() throws InterruptedException {
+        assertInvocations(2);
+        System.setProperty(MAX_RETRIES_KEY, "3");
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertInvocations(4);
+    }
+
+    @Test
+    public void testInvalidChangeKeepsPreviousConfig() throws InterruptedException {
+        assertInvocations(ReloadableService::pong, 2);
+        System.setProperty(INVALID_MAX_RETRIES_KEY, "-5");
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertInvocations(ReloadableService::pong, 2);
+        assertInvocations(ReloadableService::pong, 2);
+    }
+
+    @Test
+    public void testTimeoutRefreshed() throws InterruptedException {
+        try {
+            service.sleep(500);
+            fail("Invocation should time out!");
+        } catch (TimeoutException expected) {
+            // Expected
+        }
+        System.setProperty(TIMEOUT_KEY, "2000");
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertEquals(service.sleep(500), "awake");
+    }
+
+    private void assertInvocations(int expected) {
+        assertInvocations(ReloadableService::ping, expected);
+    }
+
+    private void assertInvocations(Consumer<ReloadableService> invocation, int expected) {
+        service.getCounter().set(0);
+        try {
+            invocation.accept(service);
+            fail("Invocation should always fail!");
+        } catch (IllegalStateException expectedException) {
+            // Expected
+        }
+        assertEquals(service.getCounter().get(), expected);
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.reload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+
+@ApplicationScoped
+public class ReloadableService {
+
+    @Retry(maxRetries = 1)
+    public void ping() {
+        counter.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    @Retry(maxRetries = 1)
+    public void pong() {
+        counter.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    @Timeout(100)
+    public String sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return "awake";
+    }
+
+    AtomicInteger getCounter() {
+        return counter;
+    }
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+}
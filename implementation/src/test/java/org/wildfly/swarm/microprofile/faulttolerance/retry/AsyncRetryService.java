@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.retry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+
+@ApplicationScoped
+public class AsyncRetryService {
+
+    @Asynchronous
+    @Retry(maxRetries = 3, delay = 200, jitter = 0)
+    public Future<String> ping() {
+        if (counter.incrementAndGet() < 3) {
+            throw new IllegalStateException("Service call failed!");
+        }
+        return CompletableFuture.completedFuture("pong");
+    }
+
+    @Asynchronous
+    @Retry(maxRetries = 2, delay = 10, jitter = 0)
+    @Fallback(fallbackMethod = "fallback")
+    public Future<String> fail() {
+        counter.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    public Future<String> fallback() {
+        return CompletableFuture.completedFuture("fallback");
+    }
+
+    @Asynchronous
+    @Retry(maxRetries = 3, delay = 10, jitter = 0)
+    @CircuitBreaker(requestVolumeThreshold = 2, failureRatio = 1.0, delay = 60000)
+    @Fallback(fallbackMethod = "threadFallback")
+    public Future<String> failOpen() {
+        counter.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    public Future<String> threadFallback() {
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+    AtomicInteger getCounter() {
+        return counter;
+    }
+
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.retry;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class NonBlockingRetryTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return ShrinkWrap.create(JavaArchive.class).addPackage(NonBlockingRetryTest.class.getPackage()).addClass(HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(HystrixCommandInterceptor.NON_BLOCKING_RETRY_KEY + "=true"), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    AsyncRetryService service;
+
+    @Test
+    public void testRetriedWithoutBlocking() throws InterruptedException, ExecutionException, TimeoutException {
+        service.getCounter().set(0);
+        Future<String> future = service.ping();
+        // The second attempt is scheduled 200 ms after the first one failed
+        assertFalse(future.isDone());
+        assertEquals(future.get(5, TimeUnit.SECONDS), "pong");
+        assertEquals(service.getCounter().get(), 3);
+    }
+
+    @Test
+    public void testFallbackAfterLastAttempt() throws InterruptedException, ExecutionException, TimeoutException {
+        service.getCounter().set(0);
+        assertEquals(service.fail().get(5, TimeUnit.SECONDS), "fallback");
+        assertEquals(service.getCounter().get(), 3);
+    }
+
+    @Test
+    public void testFallbackNotRunOnSchedulerThread() throws InterruptedException, ExecutionException, TimeoutException {
+        service.getCounter().set(0);
+        // The third attempt finds the circuit open on the scheduler thread
+        assertNotEquals(service.failOpen().get(5, TimeUnit.SECONDS), "fault-tolerance-retry-scheduler");
+        assertEquals(service.getCounter().get(), 2);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.retry;
+
+import static org.testng.Assert.assertEquals;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class RetryBudgetTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String prefix = BudgetService.class.getName() + "/ping/Retry/";
+        return ShrinkWrap.create(JavaArchive.class).addClasses(BudgetService.class, HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(prefix + "budgetRatio=0.5\n" + prefix + "budgetCapacity=2"), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    BudgetService service;
+
+    @Test
+    public void testRetriesLimitedByBudget() {
+        service.setFailing(true);
+        // The budget is full initially - two retries only
+        assertInvocations("fallback", 3);
+        // The budget is exhausted - fail fast to the fallback
+        assertInvocations("fallback", 1);
+        // Each successful first attempt deposits half a token
+        service.setFailing(false);
+        assertInvocations("pong", 1);
+        assertInvocations("pong", 1);
+        service.setFailing(true);
+        assertInvocations("fallback", 2);
+    }
+
+    private void assertInvocations(String expectedResult, int expectedInvocations) {
+        service.getCounter().set(0);
+        assertEquals(service.ping(), expectedResult);
+        assertEquals(service.getCounter().get(), expectedInvocations);
+    }
+
+}
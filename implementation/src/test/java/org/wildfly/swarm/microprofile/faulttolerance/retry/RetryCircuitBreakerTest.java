@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.retry;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class RetryCircuitBreakerTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return ShrinkWrap.create(JavaArchive.class).addClasses(RetryCircuitBreakerService.class, HystrixCommandInterceptor.class)
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    RetryCircuitBreakerService service;
+
+    @Test
+    public void testEachAttemptRecordedByCircuitBreaker() {
+        service.getCounter().set(0);
+        try {
+            service.ping();
+            fail("Circuit should be open!");
+        } catch (CircuitBreakerOpenException expected) {
+            // Expected
+        }
+        assertEquals(service.getCounter().get(), 4);
+    }
+
+    @Test
+    public void testFallbackAfterRetries() {
+        service.getCounter().set(0);
+        assertEquals(service.pingWithFallback(), "fallback");
+        assertEquals(service.getCounter().get(), 3);
+    }
+
+    @Test
+    public void testErrorRecordedByCircuitBreaker() throws InterruptedException {
+        service.setFailure(new IllegalStateException("Service call failed!"));
+        try {
+            service.pingWithFailure();
+            fail("Circuit should be open!");
+        } catch (CircuitBreakerOpenException expected) {
+            // Expected
+        }
+        TimeUnit.MILLISECONDS.sleep(200);
+        // The trial execution fails with an error, which is not retried
+        service.getCounter().set(0);
+        service.setFailure(new AssertionError("Service call failed!"));
+        try {
+            service.pingWithFailure();
+            fail("Invocation should fail!");
+        } catch (Throwable expected) {
+            // Expected
+        }
+        assertEquals(service.getCounter().get(), 1);
+        TimeUnit.MILLISECONDS.sleep(200);
+        // The trial permit was not leaked
+        service.setFailure(null);
+        assertEquals(service.pingWithFailure(), "pong");
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.shared;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+
+@ApplicationScoped
+public class DatabaseClient {
+
+    @CircuitBreaker(requestVolumeThreshold = 2, failureRatio = 1.0, delay = 60000)
+    public String findUser() {
+        return query("user");
+    }
+
+    @CircuitBreaker(requestVolumeThreshold = 2, failureRatio = 1.0, delay = 60000)
+    public String findOrder() {
+        return query("order");
+    }
+
+    void setDown(boolean down) {
+        this.down = down;
+    }
+
+    private String query(String result) {
+        if (down) {
+            throw new IllegalStateException("Database is down");
+        }
+        return result;
+    }
+
+    private volatile boolean down;
+
+}
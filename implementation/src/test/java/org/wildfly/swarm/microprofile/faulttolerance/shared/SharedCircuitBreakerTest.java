@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.shared;
+
+import static org.testng.Assert.fail;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.testng.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.testng.annotations.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixCommandInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.HystrixExtension;
+
+public class SharedCircuitBreakerTest extends Arquillian {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        String prefix = DatabaseClient.class.getName();
+        String config = prefix + "/findUser/CircuitBreaker/name=database\n" + prefix + "/findOrder/CircuitBreaker/name=database";
+        return ShrinkWrap.create(JavaArchive.class).addClasses(DatabaseClient.class, HystrixCommandInterceptor.class)
+                .addAsManifestResource(new StringAsset(config), "microprofile-config.properties")
+                .addAsServiceProvider(Extension.class, HystrixExtension.class).addAsManifestResource(EmptyAsset.INSTANCE, "beans.xml");
+    }
+
+    @Inject
+    DatabaseClient client;
+
+    @Test
+    public void testMethodsTripTogether() {
+        client.setDown(true);
+        try {
+            client.findUser();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            client.findOrder();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        // Both failures were recorded by the shared circuit breaker
+        try {
+            client.findUser();
+            fail();
+        } catch (CircuitBreakerOpenException expected) {
+        }
+        try {
+            client.findOrder();
+            fail();
+        } catch (CircuitBreakerOpenException expected) {
+        }
+    }
+
+}